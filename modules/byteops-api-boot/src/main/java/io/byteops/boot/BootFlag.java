@@ -1,5 +1,6 @@
 package io.byteops.boot;
 
+import java.io.File;
 import java.io.PrintStream;
 
 public abstract class BootFlag {
@@ -51,5 +52,63 @@ public abstract class BootFlag {
         }
     }
 
+    public static final class WeaveCache extends BootFlag {
+        final File directory;
+        final long maxBytes;
+
+        public WeaveCache(File directory, long maxBytes) {
+            this.directory = directory;
+            this.maxBytes = maxBytes;
+        }
+
+        public WeaveCache(File directory) {
+            this(directory, 256L * 1024 * 1024);
+        }
+    }
+
+    public static final class PreWeave extends BootFlag {
+        final int threads;
+
+        public PreWeave(int threads) {
+            this.threads = threads;
+        }
+    }
+
+    public static final class JitBudget extends BootFlag {
+        final int maxInlineSize;
+        final int freqInlineSize;
+        final int hugeMethodLimit;
+        final boolean outline;
+
+        public JitBudget(int maxInlineSize, int freqInlineSize, int hugeMethodLimit, boolean outline) {
+            this.maxInlineSize = maxInlineSize;
+            this.freqInlineSize = freqInlineSize;
+            this.hugeMethodLimit = hugeMethodLimit;
+            this.outline = outline;
+        }
+
+        public JitBudget(boolean outline) {
+            this(35, 325, 8000, outline);
+        }
+    }
+
+    public static final class KillSwitch extends BootFlag {
+        final boolean killSwitch;
+
+        public KillSwitch(boolean killSwitch) {
+            this.killSwitch = killSwitch;
+        }
+    }
+
+    public static final class Async extends BootFlag {
+        final int capacity;
+        final int consumers;
+
+        public Async(int capacity, int consumers) {
+            this.capacity = capacity;
+            this.consumers = consumers;
+        }
+    }
+
     private BootFlag() {}
 }
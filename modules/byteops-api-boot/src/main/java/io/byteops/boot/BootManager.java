@@ -1,6 +1,7 @@
 package io.byteops.boot;
 
 import io.byteops.internal.InternalBootManager;
+import io.byteops.modify.runtime.InjectorSwitch;
 
 import java.io.File;
 import java.io.PrintStream;
@@ -18,6 +19,16 @@ public final class BootManager {
         boolean logParser = true;
         List<Class<?>> blockedClasses = new ArrayList<>();
         PrintStream printStream = System.out;
+        File weaveCacheDirectory = null;
+        long weaveCacheMaxBytes = 0;
+        int preWeaveThreads = 0;
+        int maxInlineSize = 35;
+        int freqInlineSize = 325;
+        int hugeMethodLimit = 8000;
+        boolean outline = true;
+        boolean killSwitch = true;
+        int asyncCapacity = 1024;
+        int asyncConsumers = 1;
 
         for(BootFlag arg: args) {
             if(arg instanceof BootFlag.Name) name = ((BootFlag.Name) arg).name;
@@ -26,9 +37,37 @@ public final class BootManager {
             else if(arg instanceof BootFlag.LogParser) logParser = ((BootFlag.LogParser) arg).logParser;
             else if(arg instanceof BootFlag.BlockedClass) blockedClasses.add(((BootFlag.BlockedClass) arg).blockedClass);
             else if(arg instanceof BootFlag.PrintedStream) printStream = ((BootFlag.PrintedStream) arg).printStream;
+            else if(arg instanceof BootFlag.WeaveCache) {
+                weaveCacheDirectory = ((BootFlag.WeaveCache) arg).directory;
+                weaveCacheMaxBytes = ((BootFlag.WeaveCache) arg).maxBytes;
+            }
+            else if(arg instanceof BootFlag.PreWeave) preWeaveThreads = ((BootFlag.PreWeave) arg).threads;
+            else if(arg instanceof BootFlag.JitBudget) {
+                maxInlineSize = ((BootFlag.JitBudget) arg).maxInlineSize;
+                freqInlineSize = ((BootFlag.JitBudget) arg).freqInlineSize;
+                hugeMethodLimit = ((BootFlag.JitBudget) arg).hugeMethodLimit;
+                outline = ((BootFlag.JitBudget) arg).outline;
+            }
+            else if(arg instanceof BootFlag.KillSwitch) killSwitch = ((BootFlag.KillSwitch) arg).killSwitch;
+            else if(arg instanceof BootFlag.Async) {
+                asyncCapacity = ((BootFlag.Async) arg).capacity;
+                asyncConsumers = ((BootFlag.Async) arg).consumers;
+            }
             else printStream.println("[WARN]: Unknown node");
         }
 
-        InternalBootManager.getInstance().init(inst, libs, classpath, name, version, configName, logParser, blockedClasses.toArray(new Class<?>[0]), printStream);
+        InternalBootManager.getInstance().init(inst, libs, classpath, name, version, configName, logParser, blockedClasses.toArray(new Class<?>[0]), weaveCacheDirectory, weaveCacheMaxBytes, preWeaveThreads, maxInlineSize, freqInlineSize, hugeMethodLimit, outline, killSwitch, asyncCapacity, asyncConsumers, printStream);
+    }
+
+    public static boolean disableInjector(Class<?> modifyClass, String method) {
+        return InjectorSwitch.disable(modifyClass, method);
+    }
+
+    public static boolean enableInjector(Class<?> modifyClass, String method) {
+        return InjectorSwitch.enable(modifyClass, method);
+    }
+
+    public static boolean isInjectorEnabled(Class<?> modifyClass, String method) {
+        return InjectorSwitch.isEnabled(modifyClass, method);
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package io.byteops.internal;
 
 import io.byteops.boot.BootManager;
+import io.byteops.internal.weave.JitBudget;
+import io.byteops.modify.runtime.AsyncInjectors;
+import io.byteops.modify.runtime.InjectorFailures;
 import io.byteops.shadow.ShadowUtils;
 import org.jetbrains.annotations.ApiStatus;
 
@@ -31,7 +34,7 @@ public final class InternalBootManager extends ShadowUtils {
         }
     }
 
-    public void init(Instrumentation inst, File[] jarLibraries, File[] jarsToModify, String name, String version, String jsonConfigName, boolean isLogParser, Class<?>[] classesToBlock, PrintStream printStream) {
+    public void init(Instrumentation inst, File[] jarLibraries, File[] jarsToModify, String name, String version, String jsonConfigName, boolean isLogParser, Class<?>[] classesToBlock, File weaveCacheDir, long weaveCacheLimit, int preWeavePoolSize, int maxInlineSize, int freqInlineSize, int hugeMethodLimit, boolean outlineScaffolding, boolean injectorKillSwitch, int asyncCapacity, int asyncConsumers, PrintStream printStream) {
         if(!isLocked) {
             if(inst == null) {
                 new NullPointerException("Instrumentation must be not null").printStackTrace(printStream);
@@ -57,7 +60,14 @@ public final class InternalBootManager extends ShadowUtils {
             jsonName = jsonConfigName;
             logParser = isLogParser;
             blockedClasses = classesToBlock;
+            weaveCacheDirectory = weaveCacheDir;
+            weaveCacheMaxBytes = weaveCacheLimit;
+            preWeaveThreads = preWeavePoolSize;
+            jitBudget = new JitBudget(maxInlineSize, freqInlineSize, hugeMethodLimit, outlineScaffolding);
+            killSwitch = injectorKillSwitch;
             stream = printStream;
+            InjectorFailures.setPrintStream(printStream);
+            AsyncInjectors.configure(asyncCapacity, asyncConsumers);
 
             super.initAll(jarLibs.toArray(new File[0]));
             inst.addTransformer(super.getTransformer());
@@ -69,6 +79,11 @@ public final class InternalBootManager extends ShadowUtils {
     private boolean logParser;
     private File[] classPath;
     private Class<?>[] blockedClasses;
+    private File weaveCacheDirectory;
+    private long weaveCacheMaxBytes;
+    private int preWeaveThreads;
+    private JitBudget jitBudget = JitBudget.DEFAULT;
+    private boolean killSwitch = true;
     private PrintStream stream;
 
     public String getJsonName() {
@@ -87,6 +102,26 @@ public final class InternalBootManager extends ShadowUtils {
         return blockedClasses;
     }
 
+    public File getWeaveCacheDirectory() {
+        return weaveCacheDirectory;
+    }
+
+    public long getWeaveCacheMaxBytes() {
+        return weaveCacheMaxBytes;
+    }
+
+    public int getPreWeaveThreads() {
+        return preWeaveThreads;
+    }
+
+    public JitBudget getJitBudget() {
+        return jitBudget;
+    }
+
+    public boolean isKillSwitch() {
+        return killSwitch;
+    }
+
     public PrintStream getPrintStream() {
         return stream;
     }
@@ -1,8 +1,9 @@
 package io.byteops.internal.format;
 
 import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.tree.ClassNode;
 
 @ApiStatus.Internal
 public interface FunctionalModifier {
-    byte[] modify(byte[] bytecode);
+    void modify(ClassNode classNode);
 }
@@ -2,8 +2,12 @@ package io.byteops.internal.format;
 
 import io.byteops.internal.format.data.ProvideField;
 import io.byteops.internal.format.data.ProvideMethod;
+import io.byteops.internal.format.functional.AllocationProber;
 import io.byteops.internal.format.functional.Injector;
 import io.byteops.internal.format.functional.InterfaceImplementation;
+import io.byteops.internal.format.functional.Overwriter;
+import io.byteops.internal.format.functional.Prober;
+import io.byteops.internal.format.functional.Redirector;
 import io.byteops.internal.format.functional.ExtendField;
 import io.byteops.internal.format.functional.ExtendMethod;
 import org.jetbrains.annotations.ApiStatus;
@@ -17,7 +21,12 @@ public final class ModifyClass {
     private final ProvideMethod[] provideMethods;
     private final ExtendMethod[] extendMethods;
     private final Injector[] injectMethods;
+    private final Redirector[] redirectors;
+    private final Overwriter[] overwriters;
+    private final Prober[] probers;
+    private final AllocationProber[] allocationProbers;
     private final InterfaceImplementation[] implementations;
+    private final String[] dependencies;
 
     public ModifyClass(
             Class<?> modifyClass,
@@ -27,7 +36,12 @@ public final class ModifyClass {
             ProvideMethod[] provideMethods,
             ExtendMethod[] extendMethods,
             Injector[] injectMethods,
-            InterfaceImplementation[] interfaceImplementations
+            Redirector[] redirectors,
+            Overwriter[] overwriters,
+            Prober[] probers,
+            AllocationProber[] allocationProbers,
+            InterfaceImplementation[] interfaceImplementations,
+            String[] dependencies
     ) {
         this.modifyClass = modifyClass;
         this.targetClass = targetClass;
@@ -36,7 +50,12 @@ public final class ModifyClass {
         this.provideMethods = provideMethods;
         this.extendMethods = extendMethods;
         this.injectMethods = injectMethods;
+        this.redirectors = redirectors;
+        this.overwriters = overwriters;
+        this.probers = probers;
+        this.allocationProbers = allocationProbers;
         this.implementations = interfaceImplementations;
+        this.dependencies = dependencies;
     }
 
     public Class<?> getModifyClass() {
@@ -67,7 +86,27 @@ public final class ModifyClass {
         return injectMethods;
     }
 
+    public Redirector[] getRedirectors() {
+        return redirectors;
+    }
+
+    public Overwriter[] getOverwriters() {
+        return overwriters;
+    }
+
+    public Prober[] getProbers() {
+        return probers;
+    }
+
+    public AllocationProber[] getAllocationProbers() {
+        return allocationProbers;
+    }
+
     public InterfaceImplementation[] getImplementations() {
         return implementations;
     }
+
+    public String[] getDependencies() {
+        return dependencies;
+    }
 }
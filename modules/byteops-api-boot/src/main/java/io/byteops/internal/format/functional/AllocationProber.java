@@ -0,0 +1,78 @@
+package io.byteops.internal.format.functional;
+
+import io.byteops.internal.util.DescriptorFormat;
+import io.byteops.internal.weave.InsnMatcher;
+import io.byteops.internal.weave.RuntimeCalls;
+import io.byteops.modify.AllocationProbe;
+import io.byteops.modify.util.At;
+import io.byteops.modify.util.MethodReference;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class AllocationProber {
+    private final AllocationProbe annotation;
+    private final MethodReference reference;
+    private final InsnMatcher matcher;
+    private final String targetKey;
+    private final String ownerName;
+    private final String methodName;
+
+    public AllocationProber(Class<?> targetClass, AllocationProbe annotation, MethodReference reference) {
+        this.annotation = annotation;
+        this.reference = reference;
+        this.matcher = InsnMatcher.forInject(At.NEW, annotation.target(), new int[0]);
+        this.targetKey = reference.method() + ":" + DescriptorFormat.getMethodDescriptor(reference);
+        this.ownerName = targetClass.getName();
+        this.methodName = reference.method() + DescriptorFormat.getMethodDescriptor(reference);
+    }
+
+    public boolean probe(ClassNode classNode, MethodNode targetMethod) {
+        int index = 0;
+        int line = 0;
+        for (AbstractInsnNode insn : targetMethod.instructions.toArray()) {
+            if (insn instanceof LineNumberNode) line = ((LineNumberNode) insn).line;
+            if (!matcher.matches(insn)) continue;
+
+            targetMethod.instructions.insertBefore(insn, RuntimeCalls.recordAllocation(classNode.version, ownerName, methodName, index++, line, typeOf(insn), annotation.sample()));
+        }
+        return index != 0;
+    }
+
+    private static String typeOf(AbstractInsnNode insn) {
+        switch (insn.getOpcode()) {
+            case NEW: return Type.getObjectType(((TypeInsnNode) insn).desc).getClassName();
+            case ANEWARRAY: return Type.getObjectType(((TypeInsnNode) insn).desc).getClassName() + "[]";
+            case MULTIANEWARRAY: return Type.getType(((MultiANewArrayInsnNode) insn).desc).getClassName();
+            default: return primitiveOf(((IntInsnNode) insn).operand) + "[]";
+        }
+    }
+
+    private static String primitiveOf(int operand) {
+        switch (operand) {
+            case T_BOOLEAN: return "boolean";
+            case T_CHAR: return "char";
+            case T_FLOAT: return "float";
+            case T_DOUBLE: return "double";
+            case T_BYTE: return "byte";
+            case T_SHORT: return "short";
+            case T_INT: return "int";
+            default: return "long";
+        }
+    }
+
+    public String getTargetKey() {
+        return targetKey;
+    }
+
+    public AllocationProbe getAnnotation() {
+        return annotation;
+    }
+
+    public MethodReference getReference() {
+        return reference;
+    }
+}
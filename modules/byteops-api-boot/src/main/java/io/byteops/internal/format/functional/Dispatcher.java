@@ -0,0 +1,127 @@
+package io.byteops.internal.format.functional;
+
+import io.byteops.internal.util.ContentHash;
+import io.byteops.internal.weave.HandlerPool;
+import io.byteops.internal.weave.InjectorShape;
+import io.byteops.internal.weave.WeaveContext;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class Dispatcher {
+    private final AbstractInsnNode point;
+    private final List<Injector> injectors;
+    private final String dispatcherName;
+
+    public Dispatcher(MethodNode targetMethod, AbstractInsnNode point, List<Injector> injectors) {
+        this.point = point;
+        this.injectors = injectors;
+        this.dispatcherName = createDispatcherName(targetMethod, targetMethod.instructions.indexOf(point));
+    }
+
+    private String createDispatcherName(MethodNode targetMethod, int pointIndex) {
+        StringBuilder identity = new StringBuilder(targetMethod.name).append(targetMethod.desc).append('@').append(pointIndex);
+        for (Injector injector : injectors) identity.append("->").append(injector.getInjectorName());
+        String hash = ContentHash.toHex(ContentHash.sha256(identity.toString().getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+        return "dispatch$" + targetMethod.name.replace('<', '_').replace('>', '_') + "$" + hash;
+    }
+
+    public boolean inject(WeaveContext context, AbstractInsnNode at) {
+        MethodNode targetMethod = context.getTargetMethod();
+        boolean targetStatic = (targetMethod.access & ACC_STATIC) != 0;
+
+        List<VarInsnNode> loads = new ArrayList<>();
+        List<Type> parameterTypes = new ArrayList<>();
+        Map<String, Integer> parameterSlots = new HashMap<>();
+        int nextSlot = targetStatic ? 0 : 1;
+
+        InsnList body = new InsnList();
+        List<InjectorShape> shapes = new ArrayList<>();
+        boolean guarded = false;
+
+        for (Injector injector : injectors) {
+            guarded |= !injector.addInjectorMethod(context) && injector.needsHandler();
+            shapes.add(injector.getShape());
+
+            LabelNode skip = new LabelNode(new Label());
+            if (injector.hasSiteGuard()) body.add(injector.buildSiteGuard(context.getClassNode().version, skip));
+
+            InsnList call = injector.buildCallCode(targetMethod);
+            Type[] argumentTypes = Type.getArgumentTypes(injector.getInjectorDesc());
+            int argument = 0;
+
+            for (AbstractInsnNode insn : call.toArray()) {
+                if (!(insn instanceof VarInsnNode)) continue;
+
+                VarInsnNode load = (VarInsnNode) insn;
+                if (insn == call.getFirst() && call.getLast().getOpcode() == INVOKEVIRTUAL) continue;
+
+                Type type = argumentTypes[argument++];
+                String key = load.getOpcode() + ":" + load.var + ":" + type.getDescriptor();
+                Integer slot = parameterSlots.get(key);
+                if (slot == null) {
+                    slot = nextSlot;
+                    nextSlot += type.getSize();
+                    parameterSlots.put(key, slot);
+                    loads.add(new VarInsnNode(load.getOpcode(), load.var));
+                    parameterTypes.add(type);
+                }
+                load.var = slot;
+            }
+
+            body.add(call);
+            if (injector.getShape().isPassOnly()) {
+                body.add(new InsnNode(POP));
+                body.add(skip);
+                continue;
+            }
+
+            LabelNode next = new LabelNode(new Label());
+            body.add(new InsnNode(DUP));
+            body.add(new FieldInsnNode(GETSTATIC, "io/byteops/modify/util/InjectResult", "PASS", "Lio/byteops/modify/util/InjectResult;"));
+            body.add(new JumpInsnNode(IF_ACMPEQ, next));
+            body.add(new InsnNode(ARETURN));
+            body.add(next);
+            body.add(new InsnNode(POP));
+            body.add(skip);
+        }
+
+        body.add(new FieldInsnNode(GETSTATIC, "io/byteops/modify/util/InjectResult", "PASS", "Lio/byteops/modify/util/InjectResult;"));
+        body.add(new InsnNode(ARETURN));
+
+        String dispatcherDesc = Type.getMethodDescriptor(Type.getType("Lio/byteops/modify/util/InjectResult;"), parameterTypes.toArray(new Type[0]));
+        MethodNode dispatcher = new MethodNode(ACC_PRIVATE | ACC_SYNTHETIC | (targetStatic ? ACC_STATIC : 0), dispatcherName, dispatcherDesc, null, null);
+        dispatcher.instructions = body;
+        dispatcher.maxLocals = nextSlot;
+        if (guarded) HandlerPool.guard(dispatcher);
+        context.addMethod(dispatcher);
+
+        InsnList callCode = new InsnList();
+        if (!targetStatic) callCode.add(new VarInsnNode(ALOAD, 0));
+        for (VarInsnNode load : loads) callCode.add(load);
+        callCode.add(new MethodInsnNode(targetStatic ? INVOKESTATIC : INVOKEVIRTUAL, context.getClassNode().name, dispatcherName, dispatcherDesc, false));
+
+        context.getSlots().reset();
+        injectors.get(0).injectCall(targetMethod, at, callCode, InjectorShape.merge(shapes), context.getSlots());
+        return true;
+    }
+
+    public AbstractInsnNode getPoint() {
+        return point;
+    }
+
+    public List<Injector> getInjectors() {
+        return injectors;
+    }
+
+    public boolean isHeadDispatcher() {
+        return injectors.get(0).isHeadInjector();
+    }
+}
@@ -5,7 +5,8 @@ import io.byteops.internal.exceptions.ModifyInternalException;
 import io.byteops.internal.format.FunctionalModifier;
 import io.byteops.internal.util.DescriptorFormat;
 import org.jetbrains.annotations.ApiStatus;
-import org.objectweb.asm.*;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
@@ -44,33 +45,13 @@ public final class ExtendField implements FunctionalModifier {
     }
 
     @Override
-    public byte[] modify(byte[] classBytes) {
-        try {
-            ClassReader reader = new ClassReader(classBytes);
-            ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
-
-            ClassVisitor visitor = new ClassVisitor(Opcodes.ASM9, writer) {
-                @Override
-                public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
-                    super.visit(version, access, name, signature, superName, interfaces);
-
-                    FieldVisitor fv = cv.visitField(
-                            DescriptorFormat.getAccessModifiers(field),
-                            field.getName(),
-                            DescriptorFormat.getDescriptor(field.getType()),
-                            null,
-                            constantValue
-                    );
-
-                    if (fv != null) fv.visitEnd();
-                }
-            };
-
-            reader.accept(visitor, ClassReader.EXPAND_FRAMES);
-            return writer.toByteArray();
-        } catch (Throwable t) {
-            t.printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            return classBytes;
-        }
+    public void modify(ClassNode classNode) {
+        classNode.fields.add(new FieldNode(
+                DescriptorFormat.getAccessModifiers(field),
+                field.getName(),
+                DescriptorFormat.getDescriptor(field.getType()),
+                null,
+                constantValue
+        ));
     }
 }
\ No newline at end of file
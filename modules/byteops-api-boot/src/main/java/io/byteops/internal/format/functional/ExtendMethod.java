@@ -1,15 +1,15 @@
 package io.byteops.internal.format.functional;
 
-import io.byteops.internal.InternalBootManager;
 import io.byteops.internal.format.FunctionalModifier;
 import io.byteops.internal.format.data.ProvideField;
 import io.byteops.internal.format.data.ProvideMethod;
 import io.byteops.internal.instrumentation.JarClassLoader;
 import io.byteops.internal.util.DescriptorFormat;
 import io.byteops.internal.util.visitor.ExtendMethodVisitor;
+import io.byteops.internal.weave.MethodTemplate;
 import org.jetbrains.annotations.ApiStatus;
 import org.objectweb.asm.*;
-import org.objectweb.asm.tree.*;
+import org.objectweb.asm.tree.ClassNode;
 
 import java.lang.reflect.Method;
 
@@ -17,8 +17,8 @@ import java.lang.reflect.Method;
 public final class ExtendMethod implements FunctionalModifier {
     private final Method method;
     private final Class<?> targetClass;
-    private InsnList instructions;
     private final ExtendMethodVisitor visitor;
+    private volatile MethodTemplate template;
 
     public ExtendMethod(Method method, Class<?> targetClass, ProvideField[] provideFields, ProvideMethod[] provideMethods, ExtendField[] extendFields, ExtendMethod[] extendMethods) {
         this.method = method;
@@ -77,47 +77,14 @@ public final class ExtendMethod implements FunctionalModifier {
                 return null;
             }
         }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-        instructions = visitor.instructions;
+        if (visitor.instructions != null) template = new MethodTemplate(visitor.instructions, visitor.tryCatchBlocks, visitor.localVariables, visitor.lineNumbers, visitor.maxLocals, visitor.maxStack);
     }
 
     @Override
-    public byte[] modify(byte[] classBytes) {
-        try {
-            if (instructions == null || instructions.size() == 0) return classBytes;
+    public void modify(ClassNode classNode) {
+        MethodTemplate template = this.template;
+        if (template == null || template.isEmpty()) return;
 
-            ClassReader reader = new ClassReader(classBytes);
-            ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
-
-            ClassVisitor vis = new ClassVisitor(Opcodes.ASM9, writer) {
-                @Override
-                public void visitEnd() {
-                    MethodVisitor mv = cv.visitMethod(
-                        DescriptorFormat.getMethodAccess(method),
-                        method.getName(),
-                        DescriptorFormat.getMethodDescriptor(method),
-                        null,
-                        null
-                    );
-
-                    mv.visitCode();
-
-                    for (TryCatchBlockNode tcb : visitor.tryCatchBlocks) tcb.accept(mv);
-                    for (AbstractInsnNode insn : visitor.instructions) insn.accept(mv);
-                    for (LineNumberNode line : visitor.lineNumbers) line.accept(mv);
-                    for (LocalVariableNode local : visitor.localVariables) local.accept(mv);
-
-                    mv.visitMaxs(0, 0);
-                    mv.visitEnd();
-
-                    super.visitEnd();
-                }
-            };
-
-            reader.accept(vis, ClassReader.EXPAND_FRAMES);
-            return writer.toByteArray();
-        } catch (Throwable t) {
-            t.printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            return classBytes;
-        }
+        classNode.methods.add(template.instantiate(DescriptorFormat.getMethodAccess(method), method.getName(), DescriptorFormat.getMethodDescriptor(method)));
     }
 }
\ No newline at end of file
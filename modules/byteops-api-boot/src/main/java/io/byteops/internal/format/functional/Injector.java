@@ -4,20 +4,30 @@ import io.byteops.internal.InternalBootManager;
 import io.byteops.modify.Arg;
 import io.byteops.modify.Inject;
 import io.byteops.modify.Local;
-import io.byteops.modify.util.MethodReference;
+import io.byteops.modify.util.At;
+import io.byteops.modify.util.Backpressure;
+import io.byteops.modify.util.ErrorPolicy;
+import io.byteops.internal.exceptions.ModifyFormatException;
 import io.byteops.internal.exceptions.ModifyInternalException;
 import io.byteops.internal.format.data.ArgumentParameter;
 import io.byteops.internal.format.data.LocalParameter;
 import io.byteops.internal.format.data.ProvideField;
 import io.byteops.internal.format.data.ProvideMethod;
-import io.byteops.internal.instrumentation.JarClassLoader;
+import io.byteops.internal.util.ContentHash;
 import io.byteops.internal.util.DescriptorFormat;
-import io.byteops.internal.util.visitor.InjectMethodVisitor;
+import io.byteops.internal.weave.HandlerPool;
+import io.byteops.internal.weave.InjectorShape;
+import io.byteops.internal.weave.InsnMatcher;
+import io.byteops.internal.weave.MethodTemplate;
+import io.byteops.internal.weave.RuntimeCalls;
+import io.byteops.internal.weave.SlotAllocator;
+import io.byteops.internal.weave.WeaveContext;
 import org.jetbrains.annotations.ApiStatus;
 import org.objectweb.asm.*;
 import org.objectweb.asm.tree.*;
 
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.objectweb.asm.Opcodes.*;
@@ -27,112 +37,139 @@ public final class Injector {
     private final java.lang.reflect.Method method;
     private final Class<?> targetClass;
     private final Inject annotation;
-    private final InjectMethodVisitor visitor;
-    private final Map<String, String> fieldMap = new HashMap<>();
-    private final Map<String, String> methodMap = new HashMap<>();
+    private final InsnMatcher matcher;
+    private final MethodTemplate template;
+    private final InjectorShape shape;
+    private final boolean inline;
+    private final boolean async;
+    private final ErrorPolicy policy;
+    private final int maxFailures;
+    private final int sample;
     private final ArgumentParameter[] argumentParams;
     private final LocalParameter[] localParameters;
 
-    private int injectorIndex;
-    private int originalMaxLocals;
-    private static final int SLOTS_PER_INJECTOR = 32;
-
-    private MethodNode preparedTargetMethod;
-    private List<AbstractInsnNode> preparedPoints;
+    private final String targetKey;
+    private final String targetName;
+    private final String injectorDesc;
+    private final String injectorName;
+    private final String switchName;
 
     public Injector(java.lang.reflect.Method method, Class<?> targetClass, ProvideField[] provideFields, ExtendField[] extendFields, ProvideMethod[] provideMethods, ExtendMethod[] extendMethods, ArgumentParameter[] argumentParams, LocalParameter[] localParameters) {
         this.method = method;
         this.targetClass = targetClass;
         this.annotation = method.getAnnotation(Inject.class);
+        this.matcher = InsnMatcher.forInject(annotation.at(), annotation.target(), annotation.opcodes());
         this.argumentParams = argumentParams;
         this.localParameters = localParameters;
+        this.targetKey = annotation.method().method() + ":" + DescriptorFormat.getMethodDescriptor(annotation.method());
+        this.targetName = targetClass.getName().replace('.', '/');
+        this.injectorDesc = DescriptorFormat.getMethodDescriptor(method);
+        this.injectorName = createInjectorName();
+        this.switchName = method.getDeclaringClass().getName() + "." + method.getName() + injectorDesc;
+        this.policy = annotation.onError();
+        this.maxFailures = Math.max(1, annotation.maxFailures());
+        this.sample = Math.max(1, annotation.sample());
+
+        this.template = MethodTemplate.extract("Inject", method, targetClass, provideFields, extendFields, provideMethods, extendMethods);
+        this.shape = analyzeShape();
+        if (shape.discardsLocals()) new ModifyFormatException("@Inject " + method.getName() + " discards result of setLocal/setLocals, local updates are lost when called on pass() or stop()").printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        this.async = annotation.async() && isAsyncable();
+        this.inline = annotation.inline() && !async && isInlinable();
+    }
 
-        buildFieldMap(provideFields, extendFields);
-        buildMethodMap(provideMethods, extendMethods);
+    private InjectorShape analyzeShape() {
+        if (template == null || template.isEmpty()) return InjectorShape.FULL;
 
-        this.visitor = new InjectMethodVisitor(method, targetClass, fieldMap, methodMap);
-        extractMethodInstructions();
+        int access = Modifier.isStatic(method.getModifiers()) ? ACC_STATIC : 0;
+        return InjectorShape.analyze(targetName, template.instantiate(access, method.getName(), injectorDesc), method.getExceptionTypes().length > 0);
     }
 
-    private void buildFieldMap(ProvideField[] shadowFields, ExtendField[] uniqueFields) {
-        String targetName = targetClass.getName().replace('.', '/');
-        for (ProvideField sf : shadowFields) {
-            String key = sf.field().getName() + ":" + DescriptorFormat.getDescriptor(sf.field().getType());
-            fieldMap.put(key, targetName);
-        }
-        for (ExtendField uf : uniqueFields) {
-            String key = uf.getField().getName() + ":" + DescriptorFormat.getDescriptor(uf.getField().getType());
-            fieldMap.put(key, targetName);
-        }
+    private String createInjectorName() {
+        String identity = method.getDeclaringClass().getName() + "." + method.getName() + injectorDesc + "->" + targetName + "." + targetKey;
+        String hash = ContentHash.toHex(ContentHash.sha256(identity.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+        return "injector$" + method.getName() + "$" + hash;
     }
 
-    private void buildMethodMap(ProvideMethod[] shadowMethods, ExtendMethod[] uniqueMethods) {
-        String targetName = targetClass.getName().replace('.', '/');
-        for (ProvideMethod sm : shadowMethods) {
-            String key = sm.method().getName() + ":" + DescriptorFormat.getMethodDescriptor(sm.method());
-            methodMap.put(key, targetName);
-        }
-        for (ExtendMethod um : uniqueMethods) {
-            String key = um.getMethod().getName() + ":" + DescriptorFormat.getMethodDescriptor(um.getMethod());
-            methodMap.put(key, targetName);
-        }
+    private boolean isInlinable() {
+        String reason = null;
+        if (template == null || template.isEmpty()) reason = "body is not available";
+        else if (policy == ErrorPolicy.SWALLOW || policy == ErrorPolicy.DISABLE) reason = "error policy " + policy + " is handled inside the injector method";
+        else if (shape.needsCatch() && policy != ErrorPolicy.RETHROW) reason = "body may throw checked exceptions or return an error";
+        else if (template.hasTryCatchBlocks() && annotation.at() != At.HEAD) reason = "body with try/catch can be inlined only at HEAD";
+
+        if (reason == null) return true;
+        new ModifyInternalException("[Inject] " + method.getName() + " can't be inlined (" + reason + "), falling back to call").printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        return false;
+    }
+
+    private boolean isAsyncable() {
+        String reason = null;
+        if (template == null || template.isEmpty()) reason = "body is not available";
+        else if (!shape.isPassOnly()) reason = "body may return a result other than pass()";
+        else if (policy == ErrorPolicy.RETHROW) reason = "onError = RETHROW can't reach the caller of an async injector";
+
+        if (reason == null) return true;
+        new ModifyInternalException("[Inject] " + method.getName() + " can't run async (" + reason + "), falling back to call").printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        return false;
+    }
+
+    private void injectAtPoint(WeaveContext context, AbstractInsnNode point, boolean direct) {
+        AbstractInsnNode previous = point.getPrevious();
+        injectSite(context, point, direct);
+        addSiteGuard(context, previous, point);
     }
 
-    private void injectAtPoint(MethodNode targetMethod, AbstractInsnNode point, String injectorName, int baseSlot) {
+    private void addSiteGuard(WeaveContext context, AbstractInsnNode previous, AbstractInsnNode point) {
+        if (!hasSiteGuard()) return;
+
+        MethodNode targetMethod = context.getTargetMethod();
+        LabelNode skipLabel = new LabelNode(new Label());
+        InsnList check = buildSiteGuard(context.getClassNode().version, skipLabel);
+
+        if (previous == null) targetMethod.instructions.insert(check);
+        else targetMethod.instructions.insert(previous, check);
+        targetMethod.instructions.insertBefore(point, skipLabel);
+    }
+
+    private void injectSite(WeaveContext context, AbstractInsnNode point, boolean direct) {
+        MethodNode targetMethod = context.getTargetMethod();
+        SlotAllocator slots = context.getSlots();
+        HandlerPool handlers = context.getHandlers();
+
+        if (direct) {
+            injectDirect(targetMethod, point, injectorName, slots);
+            return;
+        }
+
         switch (annotation.at()) {
             case HEAD:
-                injectBeforeInsn(targetMethod, point, injectorName, baseSlot);
+                injectBeforeInsn(targetMethod, point, injectorName, slots, handlers);
                 break;
             case RETURN:
-                injectBeforeReturn(targetMethod, point, injectorName, baseSlot);
+                injectBeforeReturn(targetMethod, point, injectorName, slots, handlers);
                 break;
             case INVOKE:
             case NEW:
             case GET:
             case PUT:
-                injectBeforeInvoke(targetMethod, point, injectorName, baseSlot);
+                injectBeforeInvoke(targetMethod, point, injectorName, slots, handlers);
                 break;
             case THROW:
-                injectBeforeThrow(targetMethod, point, injectorName, baseSlot);
+                injectBeforeThrow(targetMethod, point, injectorName, slots, handlers);
                 break;
         }
     }
 
-    private void extractMethodInstructions() {
-        byte[] classBytes = JarClassLoader.getInstance().getClassBytes(method.getDeclaringClass().getName());
-        if (classBytes == null) {
-            new ModifyInternalException("[Inject] classBytes = null for " + method.getName()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            return;
-        }
-
-        String injectorDesc = DescriptorFormat.getMethodDescriptor(method);
-        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
-            @Override
-            public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
-                if (name.equals(method.getName()) && desc.equals(injectorDesc)) return visitor;
-                return null;
-            }
-        }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-
-        if (visitor.instructions == null) new ModifyInternalException("instructions is null for " + method.getName()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
-    }
-
-    private MethodNode createInjectorMethodNode(String name, boolean targetStatic) {
+    private MethodNode createInjectorMethodNode(String name, boolean targetStatic, boolean guarded) {
         int access = ACC_PRIVATE;
         if (Modifier.isStatic(method.getModifiers()) || targetStatic) access |= ACC_STATIC;
 
-        MethodNode mn = new MethodNode(access, name, DescriptorFormat.getMethodDescriptor(method), null, null);
-
-        visitor.instructions.forEach(mn.instructions::add);
-        mn.tryCatchBlocks.addAll(visitor.tryCatchBlocks);
-        mn.localVariables.addAll(visitor.localVariables);
-        mn.maxLocals = visitor.maxLocals;
-        mn.maxStack = visitor.maxStack;
-
-        return mn;
+        MethodNode injectorMethod = template.instantiate(access, name, injectorDesc);
+        if (guarded) HandlerPool.guard(injectorMethod, policy, switchName, maxFailures);
+        return injectorMethod;
     }
 
-    private List<AbstractInsnNode> findInjectionPoints(MethodNode targetMethod) {
+    public List<AbstractInsnNode> findInjectionPoints(MethodNode targetMethod) {
         List<AbstractInsnNode> allPoints = new ArrayList<>();
 
         switch (annotation.at()) {
@@ -152,27 +189,18 @@ public final class Injector {
                 break;
             }
             case RETURN: {
-                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (isReturnInsn(insn) && !isInjectorReturn(insn)) allPoints.add(insn);
-                break;
-            }
-            case INVOKE: {
-                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (isInvokeOrBinaryOp(insn) && !isInjectorCall(insn)) allPoints.add(insn);
-                break;
-            }
-            case NEW: {
-                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (isNewInsn(insn) && !isInjectorNew(insn)) allPoints.add(insn);
-                break;
-            }
-            case GET: {
-                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (isGetInsn(insn) && isNotInjectorSlotAccess(insn)) allPoints.add(insn);
+                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (isReturnInsn(insn)) allPoints.add(insn);
                 break;
             }
+            case INVOKE:
+            case NEW:
+            case GET:
             case PUT: {
-                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (isPutInsn(insn) && isNotInjectorSlotAccess(insn)) allPoints.add(insn);
+                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (matcher.matches(insn)) allPoints.add(insn);
                 break;
             }
             case THROW: {
-                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (isThrowInsn(insn) && !isInjectorThrow(insn)) allPoints.add(insn);
+                for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (isThrowInsn(insn)) allPoints.add(insn);
                 break;
             }
         }
@@ -186,110 +214,73 @@ public final class Injector {
         }
     }
 
-    private void injectBeforeInvoke(MethodNode targetMethod, AbstractInsnNode invokeInsn, String injectorName, int baseSlot) {
+    private void injectBeforeInvoke(MethodNode targetMethod, AbstractInsnNode invokeInsn, String injectorName, SlotAllocator slots, HandlerPool handlers) {
         Type[] stackTypes = getStackTypesBeforeInsn(invokeInsn);
         Type methodReturnType = Type.getReturnType(targetMethod.desc);
 
         InsnList callCode = buildCallCode(injectorName, targetMethod);
 
-        int throwableSlot = baseSlot + 1;
-        int tempSlotStart = baseSlot + 2;
-
         LabelNode tryStart = new LabelNode(new Label());
         LabelNode tryEnd = new LabelNode(new Label());
-        LabelNode catchStart = new LabelNode(new Label());
         LabelNode continueLabel = new LabelNode(new Label());
 
         InsnList tryBlock = new InsnList();
 
-        int currentSlot = tempSlotStart;
         int[] savedSlots = new int[stackTypes.length];
         for (int i = stackTypes.length - 1; i >= 0; i--) {
-            savedSlots[i] = currentSlot;
-            tryBlock.add(new VarInsnNode(getStoreOpcode(stackTypes[i]), currentSlot));
-            currentSlot += stackTypes[i].getSize();
+            savedSlots[i] = slots.allocate(stackTypes[i]);
+            tryBlock.add(new VarInsnNode(getStoreOpcode(stackTypes[i]), savedSlots[i]));
         }
 
         tryBlock.add(callCode);
-        tryBlock.add(new VarInsnNode(ASTORE, baseSlot));
-
-        addLocalUpdateLogic(tryBlock, baseSlot, targetMethod);
 
-        tryBlock.add(new VarInsnNode(ALOAD, baseSlot));
-        tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "isStop", "()Z", false));
-        tryBlock.add(new JumpInsnNode(IFEQ, continueLabel));
-
-        addReturnLogic(tryBlock, baseSlot, methodReturnType);
-
-        InsnList catchBlock = buildCatchBlock(throwableSlot);
+        addResultLogic(tryBlock, slots, targetMethod, methodReturnType, continueLabel, shape);
 
         targetMethod.instructions.insertBefore(invokeInsn, tryStart);
         targetMethod.instructions.insertBefore(invokeInsn, tryBlock);
         targetMethod.instructions.insertBefore(invokeInsn, tryEnd);
-        targetMethod.instructions.insertBefore(invokeInsn, catchStart);
-        targetMethod.instructions.insertBefore(invokeInsn, catchBlock);
         targetMethod.instructions.insertBefore(invokeInsn, continueLabel);
 
         for (int i = 0; i < stackTypes.length; i++) targetMethod.instructions.insertBefore(invokeInsn, new VarInsnNode(getLoadOpcode(stackTypes[i]), savedSlots[i]));
 
-        targetMethod.tryCatchBlocks.add(new TryCatchBlockNode(tryStart, tryEnd, catchStart, "java/lang/Throwable"));
-
-        targetMethod.maxLocals = Math.max(targetMethod.maxLocals, currentSlot);
+        handlers.protect(tryStart, tryEnd, continueLabel);
         targetMethod.maxStack = Math.max(targetMethod.maxStack, 4);
     }
 
-    private void injectBeforeInsn(MethodNode targetMethod, AbstractInsnNode point, String injectorName, int baseSlot) {
+    private void injectBeforeInsn(MethodNode targetMethod, AbstractInsnNode point, String injectorName, SlotAllocator slots, HandlerPool handlers) {
         Type returnType = Type.getReturnType(targetMethod.desc);
 
         InsnList callCode = buildCallCode(injectorName, targetMethod);
 
-        int throwableSlot = baseSlot + 1;
-
         LabelNode tryStart = new LabelNode(new Label());
         LabelNode tryEnd = new LabelNode(new Label());
-        LabelNode catchStart = new LabelNode(new Label());
         LabelNode continueLabel = new LabelNode(new Label());
 
         InsnList tryBlock = new InsnList();
 
         tryBlock.add(callCode);
-        tryBlock.add(new VarInsnNode(ASTORE, baseSlot));
-
-        addLocalUpdateLogic(tryBlock, baseSlot, targetMethod);
-
-        tryBlock.add(new VarInsnNode(ALOAD, baseSlot));
-        tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "isStop", "()Z", false));
-        tryBlock.add(new JumpInsnNode(IFEQ, continueLabel));
-
-        addReturnLogic(tryBlock, baseSlot, returnType);
 
-        InsnList catchBlock = buildCatchBlock(throwableSlot);
+        addResultLogic(tryBlock, slots, targetMethod, returnType, continueLabel, shape);
 
         targetMethod.instructions.insertBefore(point, tryStart);
         targetMethod.instructions.insertBefore(point, tryBlock);
         targetMethod.instructions.insertBefore(point, tryEnd);
-        targetMethod.instructions.insertBefore(point, catchStart);
-        targetMethod.instructions.insertBefore(point, catchBlock);
         targetMethod.instructions.insertBefore(point, continueLabel);
 
-        targetMethod.tryCatchBlocks.add(new TryCatchBlockNode(tryStart, tryEnd, catchStart, "java/lang/Throwable"));
-
-        targetMethod.maxLocals = Math.max(targetMethod.maxLocals, throwableSlot + 1);
+        handlers.protect(tryStart, tryEnd, continueLabel);
         targetMethod.maxStack = Math.max(targetMethod.maxStack, 4);
     }
 
-    private void injectBeforeReturn(MethodNode targetMethod, AbstractInsnNode returnInsn, String injectorName, int baseSlot) {
+    private void injectBeforeReturn(MethodNode targetMethod, AbstractInsnNode returnInsn, String injectorName, SlotAllocator slots, HandlerPool handlers) {
         Type returnType = Type.getReturnType(targetMethod.desc);
         boolean isVoid = returnType == Type.VOID_TYPE;
 
         InsnList callCode = buildCallCode(injectorName, targetMethod);
 
-        int throwableSlot = baseSlot + 1;
-        int returnValueSlot = baseSlot + 2;
+        int returnValueSlot = isVoid ? -1 : slots.allocate(returnType);
 
         LabelNode tryStart = new LabelNode(new Label());
         LabelNode tryEnd = new LabelNode(new Label());
-        LabelNode catchStart = new LabelNode(new Label());
         LabelNode continueLabel = new LabelNode(new Label());
 
         InsnList tryBlock = new InsnList();
@@ -297,108 +288,204 @@ public final class Injector {
         if (!isVoid) tryBlock.add(new VarInsnNode(getStoreOpcode(returnType), returnValueSlot));
 
         tryBlock.add(callCode);
-        tryBlock.add(new VarInsnNode(ASTORE, baseSlot));
-
-        addLocalUpdateLogic(tryBlock, baseSlot, targetMethod);
-
-        tryBlock.add(new VarInsnNode(ALOAD, baseSlot));
-        tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "isStop", "()Z", false));
-        tryBlock.add(new JumpInsnNode(IFEQ, continueLabel));
-
-        addReturnLogic(tryBlock, baseSlot, returnType);
 
-        InsnList catchBlock = buildCatchBlock(throwableSlot);
+        addResultLogic(tryBlock, slots, targetMethod, returnType, continueLabel, shape);
 
         targetMethod.instructions.insertBefore(returnInsn, tryStart);
         targetMethod.instructions.insertBefore(returnInsn, tryBlock);
         targetMethod.instructions.insertBefore(returnInsn, tryEnd);
-        targetMethod.instructions.insertBefore(returnInsn, catchStart);
-        targetMethod.instructions.insertBefore(returnInsn, catchBlock);
         targetMethod.instructions.insertBefore(returnInsn, continueLabel);
 
         if (!isVoid) targetMethod.instructions.insertBefore(returnInsn, new VarInsnNode(getLoadOpcode(returnType), returnValueSlot));
 
-        targetMethod.tryCatchBlocks.add(new TryCatchBlockNode(tryStart, tryEnd, catchStart, "java/lang/Throwable"));
-
-        targetMethod.maxLocals = Math.max(targetMethod.maxLocals, returnValueSlot + 1);
+        handlers.protect(tryStart, tryEnd, continueLabel);
         targetMethod.maxStack = Math.max(targetMethod.maxStack, 4);
     }
 
-    private void injectBeforeThrow(MethodNode targetMethod, AbstractInsnNode throwInsn, String injectorName, int baseSlot) {
+    private void injectBeforeThrow(MethodNode targetMethod, AbstractInsnNode throwInsn, String injectorName, SlotAllocator slots, HandlerPool handlers) {
         Type methodReturnType = Type.getReturnType(targetMethod.desc);
 
         InsnList callCode = buildCallCode(injectorName, targetMethod);
 
-        int throwableSlot = baseSlot + 1;
-        int exceptionSlot = baseSlot + 2;
+        int exceptionSlot = slots.allocate(1);
 
         LabelNode tryStart = new LabelNode(new Label());
         LabelNode tryEnd = new LabelNode(new Label());
-        LabelNode catchStart = new LabelNode(new Label());
 
         InsnList tryBlock = new InsnList();
 
         tryBlock.add(new VarInsnNode(ASTORE, exceptionSlot));
 
         tryBlock.add(callCode);
-        tryBlock.add(new VarInsnNode(ASTORE, baseSlot));
 
-        addLocalUpdateLogic(tryBlock, baseSlot, targetMethod);
+        LabelNode restoreLabel = new LabelNode(new Label());
+        addResultLogic(tryBlock, slots, targetMethod, methodReturnType, restoreLabel, shape);
 
-        tryBlock.add(new VarInsnNode(ALOAD, baseSlot));
-        tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "isStop", "()Z", false));
+        targetMethod.instructions.insertBefore(throwInsn, tryStart);
+        targetMethod.instructions.insertBefore(throwInsn, tryBlock);
+        targetMethod.instructions.insertBefore(throwInsn, tryEnd);
+        targetMethod.instructions.insertBefore(throwInsn, restoreLabel);
+        targetMethod.instructions.insertBefore(throwInsn, new VarInsnNode(ALOAD, exceptionSlot));
 
-        LabelNode restoreLabel = new LabelNode(new Label());
-        tryBlock.add(new JumpInsnNode(IFEQ, restoreLabel));
+        handlers.protect(tryStart, tryEnd, restoreLabel);
+        targetMethod.maxStack = Math.max(targetMethod.maxStack, 4);
+    }
 
-        addReturnLogic(tryBlock, baseSlot, methodReturnType);
+    private void injectDirect(MethodNode targetMethod, AbstractInsnNode point, String injectorName, SlotAllocator slots) {
+        injectCall(targetMethod, point, buildCallCode(injectorName, targetMethod), shape, slots);
+    }
 
-        tryBlock.add(restoreLabel);
-        tryBlock.add(new VarInsnNode(ALOAD, exceptionSlot));
+    void injectCall(MethodNode targetMethod, AbstractInsnNode point, InsnList callCode, InjectorShape callShape, SlotAllocator slots) {
+        LabelNode continueLabel = new LabelNode(new Label());
 
-        InsnList catchBlock = buildCatchBlock(throwableSlot);
+        addResultLogic(callCode, slots, targetMethod, Type.getReturnType(targetMethod.desc), continueLabel, callShape);
+        callCode.add(continueLabel);
+
+        targetMethod.instructions.insertBefore(point, callCode);
+    }
+
+    private void injectAsync(MethodNode targetMethod, AbstractInsnNode point, SlotAllocator slots) {
+        InsnList loads = buildCallCode(injectorName, targetMethod);
+        AbstractInsnNode call = loads.getLast();
+        loads.remove(call);
+
+        int ringSlot = slots.allocate(1);
+        int positionSlot = slots.allocate(Type.LONG_TYPE);
+        LabelNode skipLabel = new LabelNode(new Label());
+
+        InsnList insnList = new InsnList();
+        insnList.add(RuntimeCalls.asyncRing(targetName, injectorName, injectorDesc, call.getOpcode() == INVOKESTATIC, switchName, annotation.backpressure() == Backpressure.BLOCK, policy == ErrorPolicy.DISABLE ? maxFailures : 0));
+        insnList.add(new InsnNode(DUP));
+        insnList.add(new VarInsnNode(ASTORE, ringSlot));
+        insnList.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/runtime/AsyncRing", "claim", "()J", false));
+        insnList.add(new InsnNode(DUP2));
+        insnList.add(new VarInsnNode(LSTORE, positionSlot));
+        insnList.add(new InsnNode(LCONST_0));
+        insnList.add(new InsnNode(LCMP));
+        insnList.add(new JumpInsnNode(IFLT, skipLabel));
+
+        int field = 0;
+        for (AbstractInsnNode insn : loads.toArray()) {
+            int opcode = insn.getOpcode();
+            insnList.add(new VarInsnNode(ALOAD, ringSlot));
+            insnList.add(new VarInsnNode(LLOAD, positionSlot));
+            insnList.add(new IntInsnNode(SIPUSH, field++));
+            insnList.add(new VarInsnNode(opcode, ((VarInsnNode) insn).var));
+
+            if (opcode == ALOAD) {
+                insnList.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/runtime/AsyncRing", "putRef", "(JILjava/lang/Object;)V", false));
+                continue;
+            }
 
-        targetMethod.instructions.insertBefore(throwInsn, tryStart);
-        targetMethod.instructions.insertBefore(throwInsn, tryBlock);
-        targetMethod.instructions.insertBefore(throwInsn, tryEnd);
-        targetMethod.instructions.insertBefore(throwInsn, catchStart);
-        targetMethod.instructions.insertBefore(throwInsn, catchBlock);
+            if (opcode == ILOAD) insnList.add(new InsnNode(I2L));
+            else if (opcode == FLOAD) {
+                insnList.add(new MethodInsnNode(INVOKESTATIC, "java/lang/Float", "floatToRawIntBits", "(F)I", false));
+                insnList.add(new InsnNode(I2L));
+            } else if (opcode == DLOAD) insnList.add(new MethodInsnNode(INVOKESTATIC, "java/lang/Double", "doubleToRawLongBits", "(D)J", false));
+            insnList.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/runtime/AsyncRing", "putLong", "(JIJ)V", false));
+        }
 
-        targetMethod.tryCatchBlocks.add(new TryCatchBlockNode(tryStart, tryEnd, catchStart, "java/lang/Throwable"));
+        insnList.add(new VarInsnNode(ALOAD, ringSlot));
+        insnList.add(new VarInsnNode(LLOAD, positionSlot));
+        insnList.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/runtime/AsyncRing", "publish", "(J)V", false));
+        insnList.add(skipLabel);
 
-        targetMethod.maxLocals = Math.max(targetMethod.maxLocals, exceptionSlot + 1);
-        targetMethod.maxStack = Math.max(targetMethod.maxStack, 4);
+        targetMethod.instructions.insertBefore(point, insnList);
+    }
+
+    private void injectInline(MethodNode targetMethod, AbstractInsnNode point, SlotAllocator slots) {
+        boolean injectorStatic = Modifier.isStatic(method.getModifiers()) || (targetMethod.access & ACC_STATIC) != 0;
+        MethodNode body = template.instantiate(injectorStatic ? ACC_STATIC : 0, method.getName(), injectorDesc);
+
+        int localBase = slots.allocate(body.maxLocals);
+        LabelNode resultLabel = new LabelNode(new Label());
+        LabelNode continueLabel = new LabelNode(new Label());
+
+        InsnList insnList = buildCallCode(injectorName, targetMethod);
+        insnList.remove(insnList.getLast());
+
+        Type[] argumentTypes = Type.getArgumentTypes(injectorDesc);
+        int[] argumentSlots = new int[argumentTypes.length];
+        int slot = injectorStatic ? 0 : 1;
+        for (int i = 0; i < argumentTypes.length; i++) {
+            argumentSlots[i] = slot;
+            slot += argumentTypes[i].getSize();
+        }
+        for (int i = argumentTypes.length - 1; i >= 0; i--) insnList.add(new VarInsnNode(getStoreOpcode(argumentTypes[i]), localBase + argumentSlots[i]));
+        if (!injectorStatic) insnList.add(new VarInsnNode(ASTORE, localBase));
+
+        boolean hasResult = false;
+        for (AbstractInsnNode insn : body.instructions.toArray()) {
+            if (insn instanceof LineNumberNode) body.instructions.remove(insn);
+            else if (insn instanceof VarInsnNode) ((VarInsnNode) insn).var += localBase;
+            else if (insn instanceof IincInsnNode) ((IincInsnNode) insn).var += localBase;
+            else if (insn.getOpcode() == ARETURN) {
+                AbstractInsnNode previous = insn.getPrevious();
+                if (isPassResult(previous)) {
+                    body.instructions.remove(previous);
+                    body.instructions.set(insn, new JumpInsnNode(GOTO, continueLabel));
+                } else {
+                    body.instructions.set(insn, new JumpInsnNode(GOTO, resultLabel));
+                    hasResult = true;
+                }
+            }
+        }
+
+        insnList.add(body.instructions);
+        if (hasResult) {
+            insnList.add(resultLabel);
+            addResultLogic(insnList, slots, targetMethod, Type.getReturnType(targetMethod.desc), continueLabel, shape);
+        }
+        insnList.add(continueLabel);
+
+        targetMethod.instructions.insertBefore(point, insnList);
+        targetMethod.tryCatchBlocks.addAll(0, body.tryCatchBlocks);
+    }
+
+    private boolean isPassResult(AbstractInsnNode insn) {
+        if (insn instanceof MethodInsnNode) return insn.getOpcode() == INVOKESTATIC && "io/byteops/modify/util/InjectResult".equals(((MethodInsnNode) insn).owner) && "pass".equals(((MethodInsnNode) insn).name);
+        if (insn instanceof FieldInsnNode) return insn.getOpcode() == GETSTATIC && "io/byteops/modify/util/InjectResult".equals(((FieldInsnNode) insn).owner) && "PASS".equals(((FieldInsnNode) insn).name);
+        return false;
+    }
+
+    private void addResultLogic(InsnList tryBlock, SlotAllocator slots, MethodNode targetMethod, Type returnType, LabelNode continueLabel, InjectorShape resultShape) {
+        if (resultShape.isPassOnly()) {
+            tryBlock.add(new InsnNode(POP));
+            return;
+        }
+
+        int resultSlot = slots.allocate(1);
+        tryBlock.add(new VarInsnNode(ASTORE, resultSlot));
+        tryBlock.add(new VarInsnNode(ALOAD, resultSlot));
+        tryBlock.add(new FieldInsnNode(GETSTATIC, "io/byteops/modify/util/InjectResult", "PASS", "Lio/byteops/modify/util/InjectResult;"));
+        tryBlock.add(new JumpInsnNode(IF_ACMPEQ, continueLabel));
+
+        if (resultShape.mayUpdateLocals()) addLocalUpdateLogic(tryBlock, resultSlot, targetMethod);
+        if (!resultShape.mayStop()) return;
+
+        tryBlock.add(new VarInsnNode(ALOAD, resultSlot));
+        tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "isStop", "()Z", false));
+        tryBlock.add(new JumpInsnNode(IFEQ, continueLabel));
+
+        addReturnLogic(tryBlock, resultSlot, returnType);
     }
 
-    private void addReturnLogic(InsnList tryBlock, int baseSlot, Type returnType) {
+    private void addReturnLogic(InsnList tryBlock, int resultSlot, Type returnType) {
         if (returnType == Type.VOID_TYPE) {
             tryBlock.add(new InsnNode(RETURN));
         } else if (returnType.getSort() == Type.OBJECT || returnType.getSort() == Type.ARRAY) {
-            tryBlock.add(new VarInsnNode(ALOAD, baseSlot));
+            tryBlock.add(new VarInsnNode(ALOAD, resultSlot));
             tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "getValue", "()Ljava/lang/Object;", false));
             tryBlock.add(new TypeInsnNode(CHECKCAST, returnType.getInternalName()));
             tryBlock.add(new InsnNode(ARETURN));
         } else {
-            tryBlock.add(new VarInsnNode(ALOAD, baseSlot));
-            tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "getValue", "()Ljava/lang/Object;", false));
-            String wrapperType = getWrapperType(returnType);
-            tryBlock.add(new TypeInsnNode(CHECKCAST, wrapperType));
-            tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, wrapperType, getUnboxMethod(returnType), getUnboxDesc(returnType), false));
+            tryBlock.add(new VarInsnNode(ALOAD, resultSlot));
+            tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", getPrimitiveGetter(returnType), "()" + getStackDescriptor(returnType), false));
+            addNarrowing(tryBlock, returnType);
             tryBlock.add(new InsnNode(DescriptorFormat.getReturnOpcode(returnType)));
         }
     }
 
-    private InsnList buildCatchBlock(int throwableSlot) {
-        InsnList catchBlock = new InsnList();
-        catchBlock.add(new VarInsnNode(ASTORE, throwableSlot));
-        catchBlock.add(new TypeInsnNode(NEW, "java/lang/RuntimeException"));
-        catchBlock.add(new InsnNode(DUP));
-        catchBlock.add(new VarInsnNode(ALOAD, throwableSlot));
-        catchBlock.add(new MethodInsnNode(INVOKESPECIAL, "java/lang/RuntimeException", "<init>", "(Ljava/lang/Throwable;)V", false));
-        catchBlock.add(new InsnNode(ATHROW));
-        return catchBlock;
-    }
-
     private InsnList buildCallCode(String injectorName, MethodNode targetMethod) {
         InsnList callCode = new InsnList();
 
@@ -427,9 +514,9 @@ public final class Injector {
 
         callCode.add(new MethodInsnNode(
                 injectorStatic ? INVOKESTATIC : INVOKEVIRTUAL,
-                targetClass.getName().replace('.', '/'),
+                targetName,
                 injectorName,
-                DescriptorFormat.getMethodDescriptor(method),
+                injectorDesc,
                 false
         ));
 
@@ -465,56 +552,11 @@ public final class Injector {
         return uniqueLocals.get(localIndex).index;
     }
 
-    private boolean isNotInjectorSlotAccess(AbstractInsnNode insn) {
-        if (insn instanceof VarInsnNode) return ((VarInsnNode) insn).var < originalMaxLocals;
-        return true;
-    }
-
-    private boolean isInjectorReturn(AbstractInsnNode insn) {
-        AbstractInsnNode prev = insn.getPrevious();
-        while (prev != null) {
-            if (prev instanceof MethodInsnNode) return ((MethodInsnNode) prev).owner.equals("io/byteops/modify/util/InjectResult") && ((MethodInsnNode) prev).name.equals("getValue");
-            if (prev instanceof LabelNode) break;
-            prev = prev.getPrevious();
-        }
-        return false;
-    }
-
-    private boolean isInjectorNew(AbstractInsnNode insn) {
-        if (insn instanceof TypeInsnNode && insn.getOpcode() == NEW) return ((TypeInsnNode) insn).desc.equals("java/lang/RuntimeException");
-        return false;
-    }
-
-    private boolean isInjectorThrow(AbstractInsnNode insn) {
-        if (insn.getOpcode() != ATHROW) return false;
-        AbstractInsnNode prev = insn.getPrevious();
-        while (prev != null) {
-            if (prev instanceof MethodInsnNode) return ((MethodInsnNode) prev).owner.equals("java/lang/RuntimeException") && ((MethodInsnNode) prev).name.equals("<init>");
-            if (prev instanceof LabelNode) break;
-            prev = prev.getPrevious();
-        }
-        return false;
-    }
-
     private boolean isReturnInsn(AbstractInsnNode insn) {
         int opcode = insn.getOpcode();
         return opcode == RETURN || opcode == ARETURN || opcode == IRETURN || opcode == LRETURN || opcode == FRETURN || opcode == DRETURN;
     }
 
-    private boolean isGetInsn(AbstractInsnNode insn) {
-        int opcode = insn.getOpcode();
-        return opcode == GETFIELD || opcode == GETSTATIC ||
-                opcode == ILOAD || opcode == LLOAD || opcode == FLOAD ||
-                opcode == DLOAD || opcode == ALOAD;
-    }
-
-    private boolean isPutInsn(AbstractInsnNode insn) {
-        int opcode = insn.getOpcode();
-        return opcode == PUTFIELD || opcode == PUTSTATIC ||
-                opcode == ISTORE || opcode == LSTORE || opcode == FSTORE ||
-                opcode == DSTORE || opcode == ASTORE;
-    }
-
     private int getStoreOpcode(Type type) {
         if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) return ASTORE;
         if (type == Type.LONG_TYPE) return LSTORE;
@@ -531,79 +573,35 @@ public final class Injector {
         return ILOAD;
     }
 
-    private String getWrapperType(Type type) {
-        if (type == Type.BOOLEAN_TYPE) return "java/lang/Boolean";
-        if (type == Type.BYTE_TYPE) return "java/lang/Byte";
-        if (type == Type.CHAR_TYPE) return "java/lang/Character";
-        if (type == Type.SHORT_TYPE) return "java/lang/Short";
-        if (type == Type.INT_TYPE) return "java/lang/Integer";
-        if (type == Type.LONG_TYPE) return "java/lang/Long";
-        if (type == Type.FLOAT_TYPE) return "java/lang/Float";
-        if (type == Type.DOUBLE_TYPE) return "java/lang/Double";
-        throw new IllegalArgumentException("Unknown primitive type: " + type);
-    }
-
-    private String getUnboxMethod(Type type) {
-        if (type == Type.BOOLEAN_TYPE) return "booleanValue";
-        if (type == Type.BYTE_TYPE) return "byteValue";
-        if (type == Type.CHAR_TYPE) return "charValue";
-        if (type == Type.SHORT_TYPE) return "shortValue";
-        if (type == Type.INT_TYPE) return "intValue";
-        if (type == Type.LONG_TYPE) return "longValue";
-        if (type == Type.FLOAT_TYPE) return "floatValue";
-        if (type == Type.DOUBLE_TYPE) return "doubleValue";
-        throw new IllegalArgumentException("Unknown primitive type: " + type);
-    }
-
-    private String getUnboxDesc(Type type) {
-        if (type == Type.BOOLEAN_TYPE) return "()Z";
-        if (type == Type.BYTE_TYPE) return "()B";
-        if (type == Type.CHAR_TYPE) return "()C";
-        if (type == Type.SHORT_TYPE) return "()S";
-        if (type == Type.INT_TYPE) return "()I";
-        if (type == Type.LONG_TYPE) return "()J";
-        if (type == Type.FLOAT_TYPE) return "()F";
-        if (type == Type.DOUBLE_TYPE) return "()D";
-        throw new IllegalArgumentException("Unknown primitive type: " + type);
-    }
-    private boolean isInvokeOrBinaryOp(AbstractInsnNode insn) {
-        int opcode = insn.getOpcode();
-        return isMethodInvoke(opcode) || isBinaryOp(opcode) || opcode == CHECKCAST || opcode == INSTANCEOF;
-    }
-
-    private boolean isMethodInvoke(int opcode) {
-        return opcode == INVOKEVIRTUAL || opcode == INVOKESTATIC || opcode == INVOKESPECIAL || opcode == INVOKEINTERFACE || opcode == INVOKEDYNAMIC;
+    private String getPrimitiveGetter(Type type) {
+        if (type == Type.LONG_TYPE) return "getLong";
+        if (type == Type.FLOAT_TYPE) return "getFloat";
+        if (type == Type.DOUBLE_TYPE) return "getDouble";
+        return "getInt";
     }
 
-    private boolean isBinaryOp(int opcode) {
-        return opcode == IADD || opcode == ISUB || opcode == IMUL || opcode == IDIV || opcode == IREM ||
-                opcode == LADD || opcode == LSUB || opcode == LMUL || opcode == LDIV || opcode == LREM ||
-                opcode == FADD || opcode == FSUB || opcode == FMUL || opcode == FDIV || opcode == FREM ||
-                opcode == DADD || opcode == DSUB || opcode == DMUL || opcode == DDIV || opcode == DREM ||
-                opcode == ISHL || opcode == ISHR || opcode == IUSHR ||
-                opcode == LSHL || opcode == LSHR || opcode == LUSHR ||
-                opcode == IAND || opcode == IOR || opcode == IXOR ||
-                opcode == LAND || opcode == LOR || opcode == LXOR;
+    private String getStackDescriptor(Type type) {
+        if (type == Type.LONG_TYPE || type == Type.FLOAT_TYPE || type == Type.DOUBLE_TYPE) return type.getDescriptor();
+        return "I";
     }
 
-    private boolean isNewInsn(AbstractInsnNode insn) {
-        int opcode = insn.getOpcode();
-        return opcode == NEW || opcode == NEWARRAY || opcode == ANEWARRAY || opcode == MULTIANEWARRAY;
+    private void addNarrowing(InsnList insnList, Type type) {
+        if (type == Type.BOOLEAN_TYPE) {
+            insnList.add(new InsnNode(ICONST_1));
+            insnList.add(new InsnNode(IAND));
+        } else if (type == Type.BYTE_TYPE) {
+            insnList.add(new InsnNode(I2B));
+        } else if (type == Type.CHAR_TYPE) {
+            insnList.add(new InsnNode(I2C));
+        } else if (type == Type.SHORT_TYPE) {
+            insnList.add(new InsnNode(I2S));
+        }
     }
 
     private boolean isThrowInsn(AbstractInsnNode insn) {
         return insn.getOpcode() == ATHROW;
     }
 
-    private boolean isInjectorCall(AbstractInsnNode insn) {
-        if (insn instanceof MethodInsnNode) {
-            if (((MethodInsnNode) insn).name.startsWith("injector$")) return true;
-            if (((MethodInsnNode) insn).owner.equals("io/byteops/modify/util/InjectResult")) return true;
-            return ((MethodInsnNode) insn).owner.equals("java/lang/RuntimeException");
-        }
-        return false;
-    }
-
     private Type[] getStackTypesBeforeInsn(AbstractInsnNode insn) {
         if (insn instanceof MethodInsnNode) return Type.getArgumentTypes(((MethodInsnNode) insn).desc);
         if (insn instanceof InvokeDynamicInsnNode) return Type.getArgumentTypes(((InvokeDynamicInsnNode) insn).desc);
@@ -692,8 +690,13 @@ public final class Injector {
         }
     }
 
-    private void addLocalUpdateLogic(InsnList tryBlock, int baseSlot, MethodNode targetMethod) {
-        if (localParameters == null) return;
+    private void addLocalUpdateLogic(InsnList tryBlock, int resultSlot, MethodNode targetMethod) {
+        if (localParameters == null || localParameters.length == 0) return;
+
+        LabelNode skipLocals = new LabelNode(new Label());
+        tryBlock.add(new VarInsnNode(ALOAD, resultSlot));
+        tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "hasLocals", "()Z", false));
+        tryBlock.add(new JumpInsnNode(IFEQ, skipLocals));
 
         for (LocalParameter lp : localParameters) {
             int localIndex = lp.parameter().getAnnotation(Local.class).value();
@@ -702,109 +705,149 @@ public final class Injector {
 
             Type paramType = Type.getType(lp.parameter().getType());
 
-            tryBlock.add(new VarInsnNode(ALOAD, baseSlot));
+            tryBlock.add(new VarInsnNode(ALOAD, resultSlot));
             tryBlock.add(new IntInsnNode(SIPUSH, localIndex));
             tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "hasLocalUpdate", "(I)Z", false));
 
             LabelNode skipUpdate = new LabelNode(new Label());
             tryBlock.add(new JumpInsnNode(IFEQ, skipUpdate));
 
-            tryBlock.add(new VarInsnNode(ALOAD, baseSlot));
+            tryBlock.add(new VarInsnNode(ALOAD, resultSlot));
             tryBlock.add(new IntInsnNode(SIPUSH, localIndex));
-            tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "getLocalValue", "(I)Ljava/lang/Object;", false));
 
             if (paramType.getSort() == Type.OBJECT || paramType.getSort() == Type.ARRAY) {
+                tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "getLocalValue", "(I)Ljava/lang/Object;", false));
                 tryBlock.add(new TypeInsnNode(CHECKCAST, paramType.getInternalName()));
                 tryBlock.add(new VarInsnNode(ASTORE, rawSlot));
             } else {
-                String wrapperType = getWrapperType(paramType);
-                tryBlock.add(new TypeInsnNode(CHECKCAST, wrapperType));
-                tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, wrapperType, getUnboxMethod(paramType), getUnboxDesc(paramType), false));
+                tryBlock.add(new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", getPrimitiveGetter(paramType) + "Local", "(I)" + getStackDescriptor(paramType), false));
+                addNarrowing(tryBlock, paramType);
                 tryBlock.add(new VarInsnNode(getStoreOpcode(paramType), rawSlot));
             }
 
             tryBlock.add(skipUpdate);
         }
+
+        tryBlock.add(skipLocals);
     }
 
-    public void preparing(byte[] classBytes, int index) {
-        this.injectorIndex = index;
+    public boolean isInjectable(MethodNode targetMethod) {
+        if (targetMethod == null) {
+            new ModifyInternalException("inject target method not found: " + targetKey).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        }
+
+        if ((targetMethod.access & ACC_ABSTRACT) != 0 || (targetMethod.access & ACC_NATIVE) != 0) {
+            new ModifyInternalException("inject target method is abstract/native: " + targetKey).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        }
+
+        return true;
+    }
 
-        ClassNode preparedClassNode = new ClassNode();
-        new ClassReader(classBytes).accept(preparedClassNode, ClassReader.SKIP_FRAMES);
+    public boolean inject(WeaveContext context, List<AbstractInsnNode> points) {
+        if (points.isEmpty() || template == null || template.isEmpty()) return false;
 
-        MethodReference targetSig = annotation.method();
-        String targetDesc = DescriptorFormat.getMethodDescriptor(targetSig);
-        preparedTargetMethod = null;
+        MethodNode targetMethod = context.getTargetMethod();
+        SlotAllocator slots = context.getSlots();
 
-        for (MethodNode method : preparedClassNode.methods) {
-            if (method.name.equals(targetSig.method()) && method.desc.equals(targetDesc)) {
-                preparedTargetMethod = method;
-                break;
+        if (inline && !context.isCompact()) {
+            for (AbstractInsnNode point : points) {
+                slots.reset();
+                AbstractInsnNode previous = point.getPrevious();
+                injectInline(targetMethod, point, slots);
+                addSiteGuard(context, previous, point);
             }
+            return true;
         }
 
-        if (preparedTargetMethod == null) {
-            new ModifyInternalException("inject target method not found: " + targetSig.method() + targetDesc).printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            return;
+        if (async && RuntimeCalls.supportsIndy(context.getClassNode().version)) {
+            addInjectorMethod(context);
+            for (AbstractInsnNode point : points) {
+                slots.reset();
+                AbstractInsnNode previous = point.getPrevious();
+                injectAsync(targetMethod, point, slots);
+                addSiteGuard(context, previous, point);
+            }
+            return true;
         }
 
-        if ((preparedTargetMethod.access & ACC_ABSTRACT) != 0 || (preparedTargetMethod.access & ACC_NATIVE) != 0) {
-            new ModifyInternalException("inject target method is abstract/native: " + targetSig.method() + targetDesc).printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            return;
+        boolean guarded = addInjectorMethod(context);
+        for (AbstractInsnNode point : points) {
+            slots.reset();
+            injectAtPoint(context, point, guarded || !needsHandler());
         }
 
-        this.originalMaxLocals = preparedTargetMethod.maxLocals;
-        preparedPoints = findInjectionPoints(preparedTargetMethod);
+        return true;
     }
 
-    public byte[] inject(byte[] classBytes) {
-        try {
-            if (preparedTargetMethod == null || preparedPoints == null || preparedPoints.isEmpty()) return classBytes;
+    boolean addInjectorMethod(WeaveContext context) {
+        boolean targetStatic = (context.getTargetMethod().access & ACC_STATIC) != 0;
+        boolean guarded = needsHandler() && (context.isCompact() || policy != ErrorPolicy.WRAP);
+        context.addMethod(createInjectorMethodNode(injectorName, targetStatic, guarded));
+        return guarded;
+    }
 
-            ClassNode classNode = new ClassNode();
-            new ClassReader(classBytes).accept(classNode, ClassReader.SKIP_FRAMES);
+    InsnList buildCallCode(MethodNode targetMethod) {
+        return buildCallCode(injectorName, targetMethod);
+    }
 
-            MethodReference targetSig = annotation.method();
-            String targetDesc = DescriptorFormat.getMethodDescriptor(targetSig);
-            MethodNode targetMethod = null;
+    private boolean isSwitchable() {
+        return policy == ErrorPolicy.DISABLE || InternalBootManager.getInstance().isKillSwitch();
+    }
 
-            for (MethodNode method : classNode.methods) {
-                if (method.name.equals(targetSig.method()) && method.desc.equals(targetDesc)) {
-                    targetMethod = method;
-                    break;
-                }
-            }
+    boolean hasSiteGuard() {
+        return isSwitchable() || sample > 1;
+    }
 
-            if (targetMethod == null) return classBytes;
+    InsnList buildSiteGuard(int classVersion, LabelNode skipLabel) {
+        InsnList check = new InsnList();
+        if (isSwitchable()) {
+            check.add(RuntimeCalls.switchCheck(classVersion, switchName));
+            check.add(new JumpInsnNode(IFEQ, skipLabel));
+        }
+        if (sample > 1) {
+            check.add(RuntimeCalls.sampleCheck(classVersion, switchName, sample));
+            check.add(new JumpInsnNode(IFEQ, skipLabel));
+        }
+        return check;
+    }
 
-            List<AbstractInsnNode> points = findInjectionPoints(targetMethod);
-            if (points.isEmpty()) return classBytes;
+    boolean needsHandler() {
+        if (policy == ErrorPolicy.WRAP) return shape.needsCatch();
+        return policy != ErrorPolicy.RETHROW;
+    }
 
-            boolean targetStatic = (targetMethod.access & ACC_STATIC) != 0;
-            String injectorName = "injector$" + UUID.randomUUID().toString().replace("-", "");
-            MethodNode injectorMethod = createInjectorMethodNode(injectorName, targetStatic);
-            classNode.methods.add(injectorMethod);
+    public boolean isDispatchable(boolean compact) {
+        return (!inline || compact) && !async && policy == ErrorPolicy.WRAP && !shape.mayUpdateLocals() && template != null && !template.isEmpty();
+    }
 
-            int baseSlot = originalMaxLocals + injectorIndex * SLOTS_PER_INJECTOR;
+    public boolean isOutlinable() {
+        return inline || !async && policy == ErrorPolicy.WRAP && shape.needsCatch();
+    }
 
-            for (AbstractInsnNode point : points) injectAtPoint(targetMethod, point, injectorName, baseSlot);
+    public String getTargetKey() {
+        return targetKey;
+    }
 
-            for (MethodNode method : classNode.methods) {
-                Iterator<AbstractInsnNode> it = method.instructions.iterator();
-                while (it.hasNext()) {
-                    AbstractInsnNode insn = it.next();
-                    if (insn instanceof FrameNode) it.remove();
-                }
-            }
+    public boolean isHeadInjector() {
+        return annotation.at() == At.HEAD;
+    }
 
-            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
-            classNode.accept(writer);
-            return writer.toByteArray();
-        } catch (Throwable t) {
-            t.printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            return classBytes;
-        }
+    public boolean isReturnInjector() {
+        return annotation.at() == At.RETURN;
+    }
+
+    InjectorShape getShape() {
+        return shape;
+    }
+
+    String getInjectorName() {
+        return injectorName;
+    }
+
+    String getInjectorDesc() {
+        return injectorDesc;
     }
 
     public int getPriority() {
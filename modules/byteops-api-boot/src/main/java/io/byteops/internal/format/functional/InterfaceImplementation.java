@@ -2,11 +2,9 @@ package io.byteops.internal.format.functional;
 
 import io.byteops.internal.InternalBootManager;
 import io.byteops.internal.exceptions.ModifyFormatException;
-import io.byteops.internal.exceptions.ModifyInternalException;
 import io.byteops.internal.format.FunctionalModifier;
 import io.byteops.internal.util.DescriptorFormat;
 import org.jetbrains.annotations.ApiStatus;
-import org.objectweb.asm.*;
 import org.objectweb.asm.tree.*;
 
 import java.lang.reflect.Method;
@@ -18,38 +16,12 @@ public final class InterfaceImplementation implements FunctionalModifier {
     private final Class<?> interfaceClass;
 
     @Override
-    public byte[] modify(byte[] classBytes) {
-        try {
-            if (classBytes == null || classBytes.length == 0) {
-                new ModifyInternalException("class bytes are invalid").printStackTrace(InternalBootManager.getInstance().getPrintStream());
-                return classBytes;
-            }
+    public void modify(ClassNode classNode) {
+        String interfaceName = interfaceClass.getName().replace('.', '/');
 
-            ClassReader reader = new ClassReader(classBytes);
-            ClassNode classNode = new ClassNode();
+        if (!classNode.interfaces.contains(interfaceName)) classNode.interfaces.add(interfaceName);
 
-            reader.accept(classNode, ClassReader.EXPAND_FRAMES);
-
-            String interfaceName = interfaceClass.getName().replace('.', '/');
-
-            if (!classNode.interfaces.contains(interfaceName)) classNode.interfaces.add(interfaceName);
-
-            validateMethods(classNode);
-
-            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
-            classNode.accept(writer);
-
-            byte[] result = writer.toByteArray();
-
-            ClassReader checkReader = new ClassReader(result);
-            ClassNode checkNode = new ClassNode();
-            checkReader.accept(checkNode, 0);
-
-            return result;
-        } catch (Throwable t) {
-            t.printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            return classBytes;
-        }
+        validateMethods(classNode);
     }
 
     public InterfaceImplementation(Class<?> interfaceClass) {
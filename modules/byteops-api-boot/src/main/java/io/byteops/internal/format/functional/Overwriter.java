@@ -0,0 +1,63 @@
+package io.byteops.internal.format.functional;
+
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.exceptions.ModifyInternalException;
+import io.byteops.internal.format.data.ProvideField;
+import io.byteops.internal.format.data.ProvideMethod;
+import io.byteops.internal.util.DescriptorFormat;
+import io.byteops.internal.weave.MethodTemplate;
+import io.byteops.modify.Overwrite;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.tree.MethodNode;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class Overwriter {
+    private final java.lang.reflect.Method method;
+    private final Overwrite annotation;
+    private final MethodTemplate template;
+
+    private final String targetKey;
+    private final String targetName;
+
+    public Overwriter(java.lang.reflect.Method method, Class<?> targetClass, ProvideField[] provideFields, ExtendField[] extendFields, ProvideMethod[] provideMethods, ExtendMethod[] extendMethods) {
+        this.method = method;
+        this.annotation = method.getAnnotation(Overwrite.class);
+        this.targetKey = annotation.method().method() + ":" + DescriptorFormat.getMethodDescriptor(annotation.method());
+        this.targetName = targetClass.getName().replace('.', '/');
+
+        this.template = MethodTemplate.extract("Overwrite", method, targetClass, provideFields, extendFields, provideMethods, extendMethods);
+    }
+
+    public boolean overwrite(MethodNode targetMethod) {
+        if (template == null || template.isEmpty()) return false;
+
+        if ((targetMethod.access & (ACC_ABSTRACT | ACC_NATIVE)) != 0) {
+            new ModifyInternalException("overwrite target method is abstract/native: " + targetKey).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        }
+
+        MethodNode body = template.instantiate(targetMethod.access, targetMethod.name, targetMethod.desc);
+        targetMethod.instructions = body.instructions;
+        targetMethod.tryCatchBlocks = body.tryCatchBlocks;
+        targetMethod.localVariables = body.localVariables;
+        targetMethod.visibleLocalVariableAnnotations = null;
+        targetMethod.invisibleLocalVariableAnnotations = null;
+        targetMethod.maxLocals = body.maxLocals;
+        targetMethod.maxStack = body.maxStack;
+        return true;
+    }
+
+    public String getTargetKey() {
+        return targetKey;
+    }
+
+    public Overwrite getAnnotation() {
+        return annotation;
+    }
+
+    public java.lang.reflect.Method getMethod() {
+        return method;
+    }
+}
@@ -0,0 +1,98 @@
+package io.byteops.internal.format.functional;
+
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.exceptions.ModifyInternalException;
+import io.byteops.internal.util.DescriptorFormat;
+import io.byteops.internal.weave.RuntimeCalls;
+import io.byteops.modify.util.MethodReference;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.tree.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class Prober {
+    private final Class<?> modifyClass;
+    private final MethodReference reference;
+    private final String targetKey;
+    private final String probeName;
+
+    public Prober(Class<?> modifyClass, Class<?> targetClass, MethodReference reference) {
+        this.modifyClass = modifyClass;
+        this.reference = reference;
+        this.targetKey = reference.method() + ":" + DescriptorFormat.getMethodDescriptor(reference);
+        this.probeName = targetClass.getName() + "." + reference.method() + DescriptorFormat.getMethodDescriptor(reference);
+    }
+
+    public boolean probe(ClassNode classNode, MethodNode targetMethod) {
+        if ((targetMethod.access & (ACC_ABSTRACT | ACC_NATIVE)) != 0 || targetMethod.instructions.size() == 0) {
+            new ModifyInternalException("probe target method is abstract/native: " + targetKey).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        }
+
+        int startSlot = targetMethod.maxLocals;
+        targetMethod.maxLocals += 2;
+
+        for (AbstractInsnNode insn : targetMethod.instructions.toArray()) if (insn.getOpcode() >= IRETURN && insn.getOpcode() <= RETURN) targetMethod.instructions.insertBefore(insn, buildExit(classNode.version, startSlot));
+
+        AbstractInsnNode initialized = "<init>".equals(targetMethod.name) ? findConstructorCall(classNode, targetMethod) : null;
+
+        InsnList entry = new InsnList();
+        entry.add(new MethodInsnNode(INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false));
+        VarInsnNode store = new VarInsnNode(LSTORE, startSlot);
+        entry.add(store);
+        targetMethod.instructions.insert(entry);
+
+        if ("<init>".equals(targetMethod.name) && initialized == null) return true;
+
+        LabelNode begin = new LabelNode(new Label());
+        LabelNode end = new LabelNode(new Label());
+        LabelNode handler = new LabelNode(new Label());
+
+        targetMethod.instructions.insert(initialized != null ? initialized : store, begin);
+        targetMethod.instructions.add(end);
+        targetMethod.instructions.add(handler);
+        targetMethod.instructions.add(buildExit(classNode.version, startSlot));
+        targetMethod.instructions.add(new InsnNode(ATHROW));
+        targetMethod.tryCatchBlocks.add(new TryCatchBlockNode(begin, end, handler, null));
+        return true;
+    }
+
+    private InsnList buildExit(int classVersion, int startSlot) {
+        InsnList exit = new InsnList();
+        exit.add(new MethodInsnNode(INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false));
+        exit.add(new VarInsnNode(LLOAD, startSlot));
+        exit.add(new InsnNode(LSUB));
+        exit.add(RuntimeCalls.recordLatency(classVersion, probeName));
+        return exit;
+    }
+
+    private static AbstractInsnNode findConstructorCall(ClassNode classNode, MethodNode targetMethod) {
+        int pending = 0;
+        for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            if (insn.getOpcode() == NEW) pending++;
+            if (insn.getOpcode() != INVOKESPECIAL || !"<init>".equals(((MethodInsnNode) insn).name)) continue;
+
+            if (pending > 0) pending--;
+            else if (((MethodInsnNode) insn).owner.equals(classNode.superName) || ((MethodInsnNode) insn).owner.equals(classNode.name)) return insn;
+        }
+        return null;
+    }
+
+    public String getTargetKey() {
+        return targetKey;
+    }
+
+    public String getProbeName() {
+        return probeName;
+    }
+
+    public MethodReference getReference() {
+        return reference;
+    }
+
+    public Class<?> getModifyClass() {
+        return modifyClass;
+    }
+}
@@ -0,0 +1,152 @@
+package io.byteops.internal.format.functional;
+
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.exceptions.ModifyInternalException;
+import io.byteops.internal.format.data.ProvideField;
+import io.byteops.internal.format.data.ProvideMethod;
+import io.byteops.internal.util.ContentHash;
+import io.byteops.internal.util.DescriptorFormat;
+import io.byteops.internal.weave.InsnMatcher;
+import io.byteops.internal.weave.MethodTemplate;
+import io.byteops.internal.weave.TypeHierarchy;
+import io.byteops.modify.Redirect;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.*;
+import org.objectweb.asm.tree.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class Redirector {
+    private final java.lang.reflect.Method method;
+    private final Class<?> targetClass;
+    private final Redirect annotation;
+    private final InsnMatcher matcher;
+    private final MethodTemplate template;
+
+    private final String targetKey;
+    private final String targetName;
+    private final String handlerDesc;
+    private final String handlerName;
+
+    public Redirector(java.lang.reflect.Method method, Class<?> targetClass, ProvideField[] provideFields, ExtendField[] extendFields, ProvideMethod[] provideMethods, ExtendMethod[] extendMethods) {
+        this.method = method;
+        this.targetClass = targetClass;
+        this.annotation = method.getAnnotation(Redirect.class);
+        this.matcher = InsnMatcher.forRedirect(annotation.at(), annotation.target());
+        this.targetKey = annotation.method().method() + ":" + DescriptorFormat.getMethodDescriptor(annotation.method());
+        this.targetName = targetClass.getName().replace('.', '/');
+        this.handlerDesc = DescriptorFormat.getMethodDescriptor(method);
+        this.handlerName = createHandlerName();
+
+        this.template = MethodTemplate.extract("Redirect", method, targetClass, provideFields, extendFields, provideMethods, extendMethods);
+    }
+
+    private String createHandlerName() {
+        String identity = method.getDeclaringClass().getName() + "." + method.getName() + handlerDesc + "->" + targetName + "." + targetKey;
+        String hash = ContentHash.toHex(ContentHash.sha256(identity.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+        return "redirect$" + method.getName() + "$" + hash;
+    }
+
+    public boolean redirect(ClassNode classNode, MethodNode targetMethod, TypeHierarchy.Trace hierarchy) {
+        if (template == null || template.isEmpty()) return false;
+
+        boolean changed = false;
+        for (AbstractInsnNode point : findRedirectPoints(targetMethod)) changed |= redirectAt(targetMethod, point, hierarchy);
+
+        if (changed) classNode.methods.add(template.instantiate(ACC_PRIVATE | ACC_STATIC, handlerName, handlerDesc));
+        return changed;
+    }
+
+    private List<AbstractInsnNode> findRedirectPoints(MethodNode targetMethod) {
+        List<AbstractInsnNode> allPoints = new ArrayList<>();
+        for (AbstractInsnNode insn = targetMethod.instructions.getFirst(); insn != null; insn = insn.getNext()) if (matcher.matches(insn)) allPoints.add(insn);
+
+        int index = annotation.index();
+        if (index == -1) return allPoints;
+        else if (index >= 0 && index < allPoints.size()) return Collections.singletonList(allPoints.get(index));
+        else {
+            new ModifyInternalException("Index out of bounds: " + index + " (found " + allPoints.size() + ")").printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return Collections.emptyList();
+        }
+    }
+
+    private boolean redirectAt(MethodNode targetMethod, AbstractInsnNode point, TypeHierarchy.Trace hierarchy) {
+        MethodInsnNode handlerCall = new MethodInsnNode(INVOKESTATIC, targetName, handlerName, handlerDesc, false);
+
+        switch (matcher.getAt()) {
+            case INVOKE: {
+                MethodInsnNode call = (MethodInsnNode) point;
+                String expected = call.getOpcode() == INVOKESTATIC ? call.desc : "(" + Type.getObjectType(call.owner).getDescriptor() + call.desc.substring(1);
+                if (!isCompatible(expected, hierarchy)) return false;
+
+                targetMethod.instructions.set(point, handlerCall);
+                return true;
+            }
+            case GET:
+            case PUT: {
+                FieldInsnNode field = (FieldInsnNode) point;
+                String receiver = point.getOpcode() == GETSTATIC || point.getOpcode() == PUTSTATIC ? "" : Type.getObjectType(field.owner).getDescriptor();
+                String expected = point.getOpcode() == GETFIELD || point.getOpcode() == GETSTATIC ? "(" + receiver + ")" + field.desc : "(" + receiver + field.desc + ")V";
+                if (!isCompatible(expected, hierarchy)) return false;
+
+                targetMethod.instructions.set(point, handlerCall);
+                return true;
+            }
+            case NEW: {
+                TypeInsnNode newInsn = (TypeInsnNode) point;
+                MethodInsnNode constructor = InsnMatcher.findConstructor(newInsn);
+                if (constructor == null || newInsn.getNext() == null || newInsn.getNext().getOpcode() != DUP) {
+                    new ModifyInternalException("[Redirect] unsupported NEW shape for " + newInsn.desc + " in " + targetMethod.name).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                    return false;
+                }
+
+                String expected = constructor.desc.substring(0, constructor.desc.indexOf(')') + 1) + Type.getObjectType(newInsn.desc).getDescriptor();
+                if (!isCompatible(expected, hierarchy)) return false;
+
+                targetMethod.instructions.remove(newInsn.getNext());
+                targetMethod.instructions.remove(newInsn);
+                targetMethod.instructions.set(constructor, handlerCall);
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+
+    private boolean isCompatible(String expected, TypeHierarchy.Trace hierarchy) {
+        Type[] expectedArguments = Type.getArgumentTypes(expected);
+        Type[] handlerArguments = Type.getArgumentTypes(handlerDesc);
+
+        boolean compatible = expectedArguments.length == handlerArguments.length && isAssignable(Type.getReturnType(expected), Type.getReturnType(handlerDesc), hierarchy);
+        for (int i = 0; compatible && i < expectedArguments.length; i++) compatible = isAssignable(handlerArguments[i], expectedArguments[i], hierarchy);
+
+        if (!compatible) new ModifyInternalException("[Redirect] " + method.getName() + handlerDesc + " doesn't match redirected shape " + expected).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        return compatible;
+    }
+
+    private static boolean isAssignable(Type type, Type from, TypeHierarchy.Trace hierarchy) {
+        if (type.equals(from)) return true;
+        if (!isReference(type) || !isReference(from)) return false;
+
+        if (type.getSort() == Type.OBJECT && from.getSort() == Type.ARRAY) return type.getInternalName().equals("java/lang/Object") || type.getInternalName().equals("java/lang/Cloneable") || type.getInternalName().equals("java/io/Serializable");
+        if (type.getSort() == Type.OBJECT) return hierarchy.isAssignable(type.getInternalName(), from.getInternalName());
+        if (from.getSort() != Type.ARRAY || type.getDimensions() != from.getDimensions()) return false;
+        return isReference(type.getElementType()) && isReference(from.getElementType()) && hierarchy.isAssignable(type.getElementType().getInternalName(), from.getElementType().getInternalName());
+    }
+
+    private static boolean isReference(Type type) {
+        return type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY;
+    }
+
+    public String getTargetKey() {
+        return targetKey;
+    }
+
+    public Redirect getAnnotation() {
+        return annotation;
+    }
+}
@@ -1,5 +1,7 @@
 package io.byteops.internal.instrumentation;
 
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.exceptions.ModifyFormatException;
 import io.byteops.internal.format.ModifyClass;
 import io.byteops.shadow.ShadowUtils;
 import org.jetbrains.annotations.ApiStatus;
@@ -18,7 +20,8 @@ public abstract class DataCacheRegistry {
         if(instance.getClass().equals(ShadowUtils.SHADOW_CACHE_REGISTRY)) DataCacheRegistry.instance = instance;
     }
 
-    protected final Set<ModifyClass> modifyClasses = new HashSet<>();
+    protected final Set<ModifyClass> modifyClasses = new LinkedHashSet<>();
+    private volatile TargetIndex targetIndex = TargetIndex.EMPTY;
 
     public ModifyClass[] getCache() {
         return modifyClasses.toArray(new ModifyClass[0]);
@@ -26,10 +29,33 @@ public abstract class DataCacheRegistry {
 
     protected void clear() {
         modifyClasses.clear();
+        targetIndex = TargetIndex.EMPTY;
+    }
+
+    protected final void buildIndex() {
+        Map<String, List<ModifyClass>> grouped = new LinkedHashMap<>();
+
+        for(ModifyClass modifyClass: modifyClasses) {
+            String targetName = modifyClass.getTargetClass().getName().replace('.', '/');
+            if(!FormatModifyTransformer.isSupportedTarget(targetName)) {
+                new ModifyFormatException("modifying this class is unsupported: " + targetName).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                continue;
+            }
+            grouped.computeIfAbsent(targetName, key -> new ArrayList<>()).add(modifyClass);
+        }
+
+        targetIndex = new TargetIndex(grouped);
+    }
+
+    public ModifyClass[] getTargets(String internalName) {
+        return targetIndex.get(internalName);
+    }
+
+    public TargetIndex getTargetIndex() {
+        return targetIndex;
     }
 
     public boolean isTargetPath(String className) {
-        for(ModifyClass modifyClass: DataCacheRegistry.instance.getCache()) if(modifyClass.getTargetClass().getName().equals(className)) return true;
-        return false;
+        return getTargets(className.replace('.', '/')) != null;
     }
-}
\ No newline at end of file
+}
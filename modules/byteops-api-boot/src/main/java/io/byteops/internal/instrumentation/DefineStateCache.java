@@ -0,0 +1,59 @@
+package io.byteops.internal.instrumentation;
+
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.exceptions.ModifyInternalException;
+import io.byteops.internal.util.ClassLoaderExtend;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.security.ProtectionDomain;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@ApiStatus.Internal
+public final class DefineStateCache {
+    private enum State { PRESENT, DEFINED, FAILED }
+
+    private final Map<ClassLoader, Map<String, State>> states = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public void ensureDefined(ClassLoader loader, String internalName, ProtectionDomain protectionDomain) {
+        if (loader == null) return;
+
+        Map<String, State> loaderStates = states.computeIfAbsent(loader, key -> new ConcurrentHashMap<>());
+        if (loaderStates.containsKey(internalName)) return;
+
+        loaderStates.putIfAbsent(internalName, resolve(loader, internalName, protectionDomain));
+    }
+
+    public void clear() {
+        states.clear();
+    }
+
+    private static State resolve(ClassLoader loader, String internalName, ProtectionDomain protectionDomain) {
+        String binaryName = internalName.replace('/', '.');
+        if (isVisible(loader, binaryName)) return State.PRESENT;
+
+        byte[] bytes = JarClassLoader.getInstance().getClassBytes(binaryName);
+        if (bytes == null) {
+            new ModifyInternalException("class bytecode not found in GammaClassLoader cache: " + binaryName).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return State.FAILED;
+        }
+
+        try {
+            ClassLoaderExtend.defineClass(loader, binaryName, bytes, 0, bytes.length, protectionDomain);
+            return State.DEFINED;
+        } catch (LinkageError | RuntimeException e) {
+            if (isVisible(loader, binaryName)) return State.PRESENT;
+            new ModifyInternalException(e, "failed to define " + binaryName).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return State.FAILED;
+        }
+    }
+
+    private static boolean isVisible(ClassLoader loader, String binaryName) {
+        try {
+            loader.loadClass(binaryName);
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -1,15 +1,12 @@
 package io.byteops.internal.instrumentation;
 
 import io.byteops.internal.InternalBootManager;
-import io.byteops.internal.util.ClassCodeAnalyze;
-import io.byteops.internal.exceptions.ModifyInternalException;
-import io.byteops.internal.util.ClassLoaderExtend;
+import io.byteops.internal.format.ModifyClass;
 import io.byteops.shadow.ShadowUtils;
 import org.jetbrains.annotations.ApiStatus;
 
 import java.security.ProtectionDomain;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @ApiStatus.Internal
 public abstract class FormatModifyTransformer {
@@ -24,7 +21,7 @@ public abstract class FormatModifyTransformer {
     }
 
     protected static final List<String> unsupportedPaths = new ArrayList<>();
-    protected static final Set<ClassLoader> acceptedClassLoaders = ConcurrentHashMap.newKeySet();
+    protected static final DefineStateCache defineStates = new DefineStateCache();
 
     static {
         unsupportedPaths.add("java/");
@@ -37,25 +34,14 @@ public abstract class FormatModifyTransformer {
         unsupportedPaths.add("io/byteops/");
     }
 
-    protected final void defineClassRecursive(ClassLoader loader, String className, ProtectionDomain protectionDomain, Set<String> definedClasses, String currentTargetClass) {
-        String binaryName = className.replace('/', '.');
-        String currentTargetBinaryName = currentTargetClass.replace('/', '.');
-
-        if (!definedClasses.add(binaryName)) return;
-        if (binaryName.equals(currentTargetBinaryName)) return;
-
-        if (binaryName.startsWith("java.") || binaryName.startsWith("jdk.") || binaryName.startsWith("sun.") || binaryName.startsWith("javax.")) return;
-
-        byte[] bytes = JarClassLoader.getInstance().getClassBytes(binaryName);
-        if (bytes == null) return;
-
-        String[] deps = ClassCodeAnalyze.getClassPaths(bytes);
-        for (String dep : deps) defineClassRecursive(loader, dep, protectionDomain, definedClasses, currentTargetClass);
+    public static boolean isSupportedTarget(String className) {
+        for (String path : unsupportedPaths) if (className.startsWith(path)) return false;
+        for (Class<?> blockedClass : InternalBootManager.getInstance().getBlockedClasses()) if (blockedClass.getName().replace('.', '/').equals(className)) return false;
+        return true;
+    }
 
-        try {
-            ClassLoaderExtend.defineClass(loader, binaryName, bytes, 0, bytes.length, protectionDomain);
-        } catch (Exception e) {
-            new ModifyInternalException(e, "failed to define " + binaryName).printStackTrace(InternalBootManager.getInstance().getPrintStream());
-        }
+    protected final void defineDependencies(ClassLoader loader, ModifyClass[] modifyClasses, ProtectionDomain protectionDomain) {
+        for (Class<?> targetClass : JarClassLoader.getInstance().getApplyToDefine()) defineStates.ensureDefined(loader, targetClass.getName().replace('.', '/'), targetClass.getProtectionDomain());
+        for (ModifyClass modifyClass : modifyClasses) for (String dependency : modifyClass.getDependencies()) defineStates.ensureDefined(loader, dependency, protectionDomain);
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,12 @@
 package io.byteops.internal.instrumentation;
 
-import io.byteops.internal.InternalBootManager;
 import io.byteops.shadow.ShadowUtils;
 import org.jetbrains.annotations.ApiStatus;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 @ApiStatus.Internal
@@ -28,7 +23,8 @@ public abstract class JarClassLoader extends URLClassLoader implements AutoClose
 
     protected final Map<String, byte[]> byteCache = new ConcurrentHashMap<>();
     protected final Map<String, Class<?>> classCache = new ConcurrentHashMap<>();
-    protected final Map<String, JarFile> jarFiles = new HashMap<>();
+    protected final Map<String, JarFile> jarFiles = new LinkedHashMap<>();
+    protected final JarResourceStore resourceStore = new JarResourceStore();
     protected final Set<Class<?>> applyToDefine = new HashSet<>();
 
     public final Map<String, JarFile> getJarFiles() {
@@ -46,38 +42,31 @@ public abstract class JarClassLoader extends URLClassLoader implements AutoClose
         byte[] bytes = getClassBytes(name);
         if (bytes == null) throw new ClassNotFoundException(name);
 
-        byteCache.put(name, bytes);
         Class<?> clazz = defineClass(name, bytes, 0, bytes.length);
         classCache.put(name, clazz);
         return clazz;
     }
 
     public final byte[] getClassBytes(String className) {
-        if (byteCache.containsKey(className)) return byteCache.get(className);
-
-        String classPath = className.replace('.', '/') + ".class";
-        Map<String, JarFile> jarFiles = getJarFiles();
-
-        for (JarFile jar : jarFiles.values()) {
-            try {
-                JarEntry entry = jar.getJarEntry(classPath);
-                if (entry != null) {
-                    try (InputStream is = jar.getInputStream(entry)) {
-                        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-                        byte[] data = new byte[4096];
-                        int bytesRead;
-
-                        while ((bytesRead = is.read(data, 0, data.length)) != -1) buffer.write(data, 0, bytesRead);
-
-                        return buffer.toByteArray();
-                    }
-                }
-            } catch (IOException e) {
-                e.printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            }
-        }
-
-        return null;
+        byte[] bytes = byteCache.get(className);
+        if (bytes != null) return bytes;
+
+        bytes = findClassBytes(className);
+        if (bytes == null) return null;
+
+        byte[] previous = byteCache.putIfAbsent(className, bytes);
+        return previous == null ? bytes : previous;
+    }
+
+    public final byte[] findClassBytes(String className) {
+        byte[] bytes = byteCache.get(className);
+        if (bytes != null) return bytes;
+
+        return resourceStore.read(className.replace('.', '/') + ".class");
+    }
+
+    public final byte[] getJarDigest(String className) {
+        return resourceStore.getDigest(className.replace('.', '/') + ".class");
     }
 
     public JarClassLoader() {
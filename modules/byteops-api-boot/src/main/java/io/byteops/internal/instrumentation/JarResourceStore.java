@@ -0,0 +1,309 @@
+package io.byteops.internal.instrumentation;
+
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.util.ContentHash;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+
+@ApiStatus.Internal
+public final class JarResourceStore implements AutoCloseable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_HEADER_SIGNATURE = 0x06054b50;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int UNMAPPED = -1;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final List<Source> sources = new CopyOnWriteArrayList<>();
+
+    public synchronized void register(File file, JarFile jar) throws IOException {
+        Source source = MappedSource.open(file, jar);
+        if (source == null) source = new JarFileSource(jar);
+
+        sources.add(source);
+        source.index(this);
+    }
+
+    public byte[] read(String name) {
+        Entry entry = index.get(name);
+        if (entry == null) return null;
+
+        try {
+            return entry.source.read(entry);
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            e.printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return null;
+        }
+    }
+
+    public byte[] getDigest(String name) {
+        Entry entry = index.get(name);
+        if (entry == null) return null;
+
+        try {
+            return entry.source.digest();
+        } catch (IOException e) {
+            e.printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return null;
+        }
+    }
+
+    public boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private void put(String name, Entry entry) {
+        index.putIfAbsent(name, entry);
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Source source : sources) {
+            try {
+                source.close();
+            } catch (IOException e) {
+                e.printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            }
+        }
+        sources.clear();
+        index.clear();
+    }
+
+    private static final class Entry {
+        private final Source source;
+        private final String name;
+        private final int method;
+        private final long compressedSize;
+        private final long size;
+        private final long offset;
+
+        private Entry(Source source, String name, int method, long compressedSize, long size, long offset) {
+            this.source = source;
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.offset = offset;
+        }
+    }
+
+    private interface Source {
+        void index(JarResourceStore store);
+
+        byte[] read(Entry entry) throws IOException, DataFormatException;
+
+        byte[] digest() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static final class MappedSource implements Source {
+        private final JarFileSource fallback;
+        private final int centralOffset;
+        private final int centralSize;
+        private final int entryCount;
+        private volatile MappedByteBuffer buffer;
+        private volatile byte[] digest;
+
+        private MappedSource(MappedByteBuffer buffer, JarFile jar, int centralOffset, int centralSize, int entryCount) {
+            this.buffer = buffer;
+            this.fallback = new JarFileSource(jar);
+            this.centralOffset = centralOffset;
+            this.centralSize = centralSize;
+            this.entryCount = entryCount;
+        }
+
+        static MappedSource open(File file, JarFile jar) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long fileSize = channel.size();
+                if (fileSize < END_HEADER_SIZE || fileSize > Integer.MAX_VALUE) return null;
+
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+                int end = findEndHeader(buffer);
+                if (end < 0) return null;
+
+                int entryCount = buffer.getShort(end + 10) & 0xFFFF;
+                long centralSize = buffer.getInt(end + 12) & 0xFFFFFFFFL;
+                long centralOffset = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+
+                if (entryCount == 0xFFFF || centralSize == 0xFFFFFFFFL || centralOffset == 0xFFFFFFFFL) return null;
+                if (centralOffset + centralSize > end) return null;
+
+                return new MappedSource(buffer, jar, (int) centralOffset, (int) centralSize, entryCount);
+            }
+        }
+
+        private static int findEndHeader(ByteBuffer buffer) {
+            int limit = Math.max(0, buffer.limit() - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+            for (int position = buffer.limit() - END_HEADER_SIZE; position >= limit; position--) if (buffer.getInt(position) == END_HEADER_SIGNATURE) return position;
+            return -1;
+        }
+
+        @Override
+        public void index(JarResourceStore store) {
+            MappedByteBuffer buffer = this.buffer;
+            int position = centralOffset;
+            int end = centralOffset + centralSize;
+
+            for (int i = 0; i < entryCount && position + 46 <= end; i++) {
+                if (buffer.getInt(position) != CENTRAL_HEADER_SIGNATURE) break;
+
+                int flags = buffer.getShort(position + 8) & 0xFFFF;
+                int method = buffer.getShort(position + 10) & 0xFFFF;
+                long compressedSize = buffer.getInt(position + 20) & 0xFFFFFFFFL;
+                long size = buffer.getInt(position + 24) & 0xFFFFFFFFL;
+                int nameLength = buffer.getShort(position + 28) & 0xFFFF;
+                int extraLength = buffer.getShort(position + 30) & 0xFFFF;
+                int commentLength = buffer.getShort(position + 32) & 0xFFFF;
+                long offset = buffer.getInt(position + 42) & 0xFFFFFFFFL;
+
+                byte[] nameBytes = new byte[nameLength];
+                ByteBuffer view = buffer.duplicate();
+                view.position(position + 46);
+                view.get(nameBytes);
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+                boolean readable = (flags & 1) == 0 && (method == ZipEntry.STORED || method == ZipEntry.DEFLATED) && size < Integer.MAX_VALUE && compressedSize < Integer.MAX_VALUE && offset < Integer.MAX_VALUE;
+                if (!name.endsWith("/")) store.put(name, new Entry(this, name, readable ? method : UNMAPPED, compressedSize, size, offset));
+
+                position += 46 + nameLength + extraLength + commentLength;
+            }
+        }
+
+        @Override
+        public byte[] read(Entry entry) throws DataFormatException, IOException {
+            if (entry.method == UNMAPPED) return fallback.read(entry);
+
+            MappedByteBuffer buffer = mapping();
+            int header = (int) entry.offset;
+            if (buffer.getInt(header) != LOCAL_HEADER_SIGNATURE) throw new IOException("invalid local header for " + entry.name);
+
+            int dataOffset = header + 30 + (buffer.getShort(header + 26) & 0xFFFF) + (buffer.getShort(header + 28) & 0xFFFF);
+            byte[] data = new byte[(int) entry.size];
+
+            ByteBuffer view = buffer.duplicate();
+            view.position(dataOffset);
+
+            if (entry.method == ZipEntry.STORED) {
+                view.get(data);
+                return data;
+            }
+
+            byte[] compressed = new byte[(int) entry.compressedSize + 1];
+            view.get(compressed, 0, (int) entry.compressedSize);
+
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(compressed);
+                int length = 0;
+                while (length < data.length) {
+                    int count = inflater.inflate(data, length, data.length - length);
+                    if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) break;
+                    length += count;
+                }
+                if (length != data.length) throw new IOException("truncated entry " + entry.name);
+                return data;
+            } finally {
+                inflater.end();
+            }
+        }
+
+        @Override
+        public byte[] digest() throws IOException {
+            byte[] digest = this.digest;
+            if (digest == null) {
+                MessageDigest messageDigest = ContentHash.newDigest();
+                messageDigest.update(mapping().duplicate());
+                this.digest = digest = messageDigest.digest();
+            }
+            return digest;
+        }
+
+        private MappedByteBuffer mapping() throws IOException {
+            MappedByteBuffer buffer = this.buffer;
+            if (buffer == null) throw new IOException("jar is closed: " + fallback.jar.getName());
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer = null;
+            fallback.close();
+        }
+    }
+
+    private static final class JarFileSource implements Source {
+        private final JarFile jar;
+        private volatile byte[] digest;
+
+        private JarFileSource(JarFile jar) {
+            this.jar = jar;
+        }
+
+        @Override
+        public void index(JarResourceStore store) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) store.put(entry.getName(), new Entry(this, entry.getName(), entry.getMethod(), entry.getCompressedSize(), entry.getSize(), 0));
+            }
+        }
+
+        @Override
+        public byte[] read(Entry entry) throws IOException {
+            JarEntry jarEntry = jar.getJarEntry(entry.name);
+            if (jarEntry == null) return null;
+
+            try (InputStream is = jar.getInputStream(jarEntry)) {
+                return is.readAllBytes();
+            }
+        }
+
+        @Override
+        public byte[] digest() throws IOException {
+            byte[] digest = this.digest;
+            if (digest == null) {
+                MessageDigest messageDigest = ContentHash.newDigest();
+                try (InputStream is = Files.newInputStream(Paths.get(jar.getName()))) {
+                    byte[] buffer = new byte[8192];
+                    int bytesRead;
+                    while ((bytesRead = is.read(buffer)) != -1) messageDigest.update(buffer, 0, bytesRead);
+                }
+                this.digest = digest = messageDigest.digest();
+            }
+            return digest;
+        }
+
+        @Override
+        public void close() throws IOException {
+            jar.close();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.byteops.internal.instrumentation;
+
+import io.byteops.internal.format.ModifyClass;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.*;
+
+@ApiStatus.Internal
+public final class TargetIndex {
+    static final TargetIndex EMPTY = new TargetIndex(Collections.emptyMap());
+
+    private static final int MAX_FILTERED_LENGTH = 1024;
+
+    private final Map<String, ModifyClass[]> targets;
+    private final long[] lengthFilter = new long[MAX_FILTERED_LENGTH >>> 6];
+    private final boolean hasLongNames;
+
+    TargetIndex(Map<String, List<ModifyClass>> grouped) {
+        Map<String, ModifyClass[]> targets = new HashMap<>(Math.max(16, grouped.size() * 2));
+        boolean hasLongNames = false;
+
+        for (Map.Entry<String, List<ModifyClass>> entry : grouped.entrySet()) {
+            String className = entry.getKey();
+            targets.put(className, entry.getValue().toArray(new ModifyClass[0]));
+
+            int length = className.length();
+            if (length < MAX_FILTERED_LENGTH) lengthFilter[length >>> 6] |= 1L << length;
+            else hasLongNames = true;
+        }
+
+        this.targets = Collections.unmodifiableMap(targets);
+        this.hasLongNames = hasLongNames;
+    }
+
+    public ModifyClass[] get(String className) {
+        int length = className.length();
+        if (length < MAX_FILTERED_LENGTH) {
+            if ((lengthFilter[length >>> 6] & (1L << length)) == 0) return null;
+        } else if (!hasLongNames) return null;
+
+        return targets.get(className);
+    }
+
+    public int size() {
+        return targets.size();
+    }
+
+    public Set<String> getTargetNames() {
+        return targets.keySet();
+    }
+}
@@ -8,45 +8,30 @@ import java.util.*;
 
 @ApiStatus.Internal
 public final class ClassCodeAnalyze {
-    private static final Set<String> IGNORED_CLASSES = Set.of(
-            "io/byteops/modify/Arg", "io/byteops/modify/Extend",
-            "io/byteops/modify/Local", "io/byteops/modify/Inject",
-            "io/byteops/modify/Modify", "io/byteops/modify/Provide",
-            "io/byteops/modify/util/At", "io/byteops/modify/util/InjectResult",
-            "io/byteops/modify/util/LocalData",
-            "io/byteops/modify/util/MethodReference"
-    );
-
-    public static String[] getClassPathsRecursive(byte[] bytecode, ClassLoader loader, String currentTargetClass) {
+    private static final String IGNORED_PACKAGE = "io/byteops/modify/";
+
+    public static String[] getDependencyClosure(byte[] bytecode, String excludedClass) {
         Set<String> visited = new HashSet<>();
         Set<String> result = new LinkedHashSet<>();
-        collectRecursive(bytecode, loader, visited, result, currentTargetClass);
+        visited.add(excludedClass);
+        collectClosure(bytecode, visited, result);
         return result.toArray(new String[0]);
     }
 
-    private static void collectRecursive(byte[] bytecode, ClassLoader loader, Set<String> visited, Set<String> result, String currentTargetClass) {
-        String currentTargetBinaryName = currentTargetClass.replace('/', '.');
+    private static void collectClosure(byte[] bytecode, Set<String> visited, Set<String> result) {
         String[] directPaths = getClassPaths(bytecode);
+        Arrays.sort(directPaths);
 
         for (String path : directPaths) {
-            if (IGNORED_CLASSES.contains(path)) continue;
+            if (isIgnored(path)) continue;
             if (path.startsWith("java/") || path.startsWith("jdk/") || path.startsWith("sun/") || path.startsWith("javax/")) continue;
             if (!visited.add(path)) continue;
 
-            String binaryName = path.replace('/', '.');
-
-            if (binaryName.equals(currentTargetBinaryName)) continue;
-
-            try {
-                loader.loadClass(binaryName);
-                continue;
-            } catch (ClassNotFoundException | LinkageError ignored) {}
-
-            byte[] depBytes = JarClassLoader.getInstance().getClassBytes(binaryName);
+            byte[] depBytes = JarClassLoader.getInstance().getClassBytes(path.replace('/', '.'));
             if (depBytes == null) continue;
 
+            collectClosure(depBytes, visited, result);
             result.add(path);
-            collectRecursive(depBytes, loader, visited, result, currentTargetClass);
         }
     }
 
@@ -59,7 +44,7 @@ public final class ClassCodeAnalyze {
             private boolean isIgnoredAnnotation(String descriptor) {
                 if (descriptor.startsWith("L") && descriptor.endsWith(";")) {
                     String className = descriptor.substring(1, descriptor.length() - 1);
-                    return IGNORED_CLASSES.contains(className);
+                    return isIgnored(className);
                 }
                 return false;
             }
@@ -242,5 +227,9 @@ public final class ClassCodeAnalyze {
         return classes.toArray(new String[0]);
     }
 
+    private static boolean isIgnored(String path) {
+        return path.startsWith(IGNORED_PACKAGE);
+    }
+
     private ClassCodeAnalyze() {}
 }
@@ -0,0 +1,34 @@
+package io.byteops.internal.util;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+@ApiStatus.Internal
+public final class ContentHash {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static byte[] sha256(byte[] bytes) {
+        return newDigest().digest(bytes);
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >>> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private ContentHash() {}
+}
@@ -19,6 +19,8 @@ public final class ExtendMethodVisitor extends MethodVisitor {
     public final Map<String, String> methodMap = new HashMap<>();
     public final InsnList insnList = new InsnList();
 
+    private final Map<Label, LabelNode> labelMap = new HashMap<>();
+
     public int maxLocals;
     public int maxStack;
 
@@ -26,6 +28,10 @@ public final class ExtendMethodVisitor extends MethodVisitor {
         super(Opcodes.ASM9);
     }
 
+    private LabelNode getLabelNode(Label label) {
+        return labelMap.computeIfAbsent(label, LabelNode::new);
+    }
+
     @Override
     public void visitCode() {}
 
@@ -74,12 +80,12 @@ public final class ExtendMethodVisitor extends MethodVisitor {
 
     @Override
     public void visitJumpInsn(int opcode, Label label) {
-        insnList.add(new JumpInsnNode(opcode, new LabelNode(label)));
+        insnList.add(new JumpInsnNode(opcode, getLabelNode(label)));
     }
 
     @Override
     public void visitLabel(org.objectweb.asm.Label label) {
-        insnList.add(new LabelNode(label));
+        insnList.add(getLabelNode(label));
     }
 
     @Override
@@ -94,17 +100,17 @@ public final class ExtendMethodVisitor extends MethodVisitor {
 
     @Override
     public void visitTableSwitchInsn(int min, int max, Label dflt, org.objectweb.asm.Label... labels) {
-        LabelNode dfltNode = new LabelNode(dflt);
+        LabelNode dfltNode = getLabelNode(dflt);
         LabelNode[] labelNodes = new LabelNode[labels.length];
-        for (int i = 0; i < labels.length; i++) labelNodes[i] = new LabelNode(labels[i]);
+        for (int i = 0; i < labels.length; i++) labelNodes[i] = getLabelNode(labels[i]);
         insnList.add(new TableSwitchInsnNode(min, max, dfltNode, labelNodes));
     }
 
     @Override
     public void visitLookupSwitchInsn(org.objectweb.asm.Label dflt, int[] keys, Label[] labels) {
-        LabelNode dfltNode = new LabelNode(dflt);
+        LabelNode dfltNode = getLabelNode(dflt);
         LabelNode[] labelNodes = new LabelNode[labels.length];
-        for (int i = 0; i < labels.length; i++) labelNodes[i] = new LabelNode(labels[i]);
+        for (int i = 0; i < labels.length; i++) labelNodes[i] = getLabelNode(labels[i]);
         insnList.add(new LookupSwitchInsnNode(dfltNode, keys, labelNodes));
     }
 
@@ -116,24 +122,24 @@ public final class ExtendMethodVisitor extends MethodVisitor {
     @Override
     public void visitTryCatchBlock(org.objectweb.asm.Label start, org.objectweb.asm.Label end, org.objectweb.asm.Label handler, String type) {
         tryCatchBlocks.add(new TryCatchBlockNode(
-                new LabelNode(start),
-                new LabelNode(end),
-                new LabelNode(handler),
+                getLabelNode(start),
+                getLabelNode(end),
+                getLabelNode(handler),
                 type
         ));
     }
 
     @Override
     public void visitLineNumber(int line, Label start) {
-        lineNumbers.add(new LineNumberNode(line, new LabelNode(start)));
+        lineNumbers.add(new LineNumberNode(line, getLabelNode(start)));
     }
 
     @Override
     public void visitLocalVariable(String name, String desc, String signature, org.objectweb.asm.Label start, org.objectweb.asm.Label end, int index) {
         localVariables.add(new LocalVariableNode(
                 name, desc, signature,
-                new LabelNode(start),
-                new LabelNode(end),
+                getLabelNode(start),
+                getLabelNode(end),
                 index
         ));
     }
@@ -0,0 +1,494 @@
+package io.byteops.internal.weave;
+
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.exceptions.ModifyInternalException;
+import io.byteops.internal.format.ModifyClass;
+import io.byteops.internal.format.functional.AllocationProber;
+import io.byteops.internal.format.functional.Dispatcher;
+import io.byteops.internal.format.functional.ExtendField;
+import io.byteops.internal.format.functional.ExtendMethod;
+import io.byteops.internal.format.functional.Injector;
+import io.byteops.internal.format.functional.InterfaceImplementation;
+import io.byteops.internal.format.functional.Overwriter;
+import io.byteops.internal.format.functional.Prober;
+import io.byteops.internal.format.functional.Redirector;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.*;
+import org.objectweb.asm.tree.*;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+@ApiStatus.Internal
+public final class ClassWeaver {
+    public static final byte[] UNCHANGED = new byte[0];
+
+    public static WovenClass weave(byte[] bytecode, ModifyClass[] modifyClasses, ClassLoader loader) {
+        Set<Object> excluded = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (true) {
+            try {
+                return weave(bytecode, modifyClasses, loader, excluded);
+            } catch (WriteFailure failure) {
+                if (failure.culprit == null || !excluded.add(failure.culprit)) throw failure.error;
+                new ModifyInternalException(failure.error, "class write failed, retrying without " + describe(failure.culprit)).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            }
+        }
+    }
+
+    private static WovenClass weave(byte[] bytecode, ModifyClass[] modifyClasses, ClassLoader loader, Set<Object> excluded) {
+        List<Injector> injectors = new ArrayList<>();
+        for (ModifyClass modifyClass : modifyClasses) injectors.addAll(Arrays.asList(modifyClass.getInjectors()));
+        injectors.sort(Comparator.comparingInt(Injector::getPriority));
+
+        List<Redirector> redirectors = new ArrayList<>();
+        for (ModifyClass modifyClass : modifyClasses) redirectors.addAll(Arrays.asList(modifyClass.getRedirectors()));
+
+        List<Overwriter> overwriters = new ArrayList<>();
+        for (ModifyClass modifyClass : modifyClasses) overwriters.addAll(Arrays.asList(modifyClass.getOverwriters()));
+
+        List<Prober> probers = new ArrayList<>();
+        for (ModifyClass modifyClass : modifyClasses) probers.addAll(Arrays.asList(modifyClass.getProbers()));
+
+        List<AllocationProber> allocationProbers = new ArrayList<>();
+        for (ModifyClass modifyClass : modifyClasses) allocationProbers.addAll(Arrays.asList(modifyClass.getAllocationProbers()));
+
+        injectors.removeAll(excluded);
+        redirectors.removeAll(excluded);
+        overwriters.removeAll(excluded);
+        probers.removeAll(excluded);
+        allocationProbers.removeAll(excluded);
+
+        Set<String> targetMethods = new HashSet<>();
+        for (Overwriter overwriter : overwriters) targetMethods.add(overwriter.getTargetKey());
+        for (Injector injector : injectors) targetMethods.add(injector.getTargetKey());
+        for (Redirector redirector : redirectors) targetMethods.add(redirector.getTargetKey());
+        for (Prober prober : probers) targetMethods.add(prober.getTargetKey());
+        for (AllocationProber prober : allocationProbers) targetMethods.add(prober.getTargetKey());
+
+        ClassReader reader = new ClassReader(bytecode);
+        ClassNode classNode = new ClassNode();
+        reader.accept(new TreeBuilder(classNode, targetMethods), ClassReader.SKIP_FRAMES);
+
+        int originalFields = classNode.fields.size();
+        int originalMethods = classNode.methods.size();
+        Set<MethodNode> outlinedMethods = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        JitBudget budget = InternalBootManager.getInstance().getJitBudget();
+        Map<MethodNode, Integer> originalSizes = new IdentityHashMap<>();
+        for (MethodNode method : classNode.methods) if (method.instructions.size() != 0) originalSizes.put(method, JitBudget.sizeOf(method));
+
+        for (ModifyClass modifyClass : modifyClasses) {
+            for (ExtendField extendField : modifyClass.getExtendFields()) extendField.modify(classNode);
+            for (ExtendMethod extendMethod : modifyClass.getExtendMethods()) extendMethod.modify(classNode);
+            for (InterfaceImplementation implementation : modifyClass.getImplementations()) implementation.modify(classNode);
+        }
+
+        TypeHierarchy.TypeInfo self = TypeHierarchy.of(classNode.name, classNode.superName, classNode.interfaces, classNode.access);
+        Session session = new Session(classNode, TypeHierarchy.forLoader(loader).trace(self));
+
+        weaveOverwrites(session, overwriters);
+        weaveRedirects(session, redirectors);
+        weaveAllocationProbes(session, allocationProbers);
+        weaveInjectors(session, injectors, outlinedMethods, budget);
+        weaveProbes(session, probers);
+        reportBudget(classNode, originalSizes, session.modifiedMethods, outlinedMethods, budget);
+
+        boolean degraded = session.degraded || !excluded.isEmpty();
+        if (classNode.fields.size() == originalFields && classNode.methods.size() == originalMethods && session.modifiedMethods.isEmpty() && classNode.interfaces.size() == reader.getInterfaces().length) return new WovenClass(UNCHANGED, session.hierarchy.getResolved(), degraded);
+
+        ClassWriter writer = new HierarchyClassWriter(reader, ClassWriter.COMPUTE_FRAMES, session.hierarchy);
+        reader.accept(new TreeEmitter(writer, session, originalFields, originalMethods), 0);
+        try {
+            return new WovenClass(writer.toByteArray(), session.hierarchy.getResolved(), degraded);
+        } catch (MethodTooLargeException e) {
+            for (MethodNode method : classNode.methods) if (method.name.equals(e.getMethodName()) && method.desc.equals(e.getDescriptor())) throw new WriteFailure(session.culpritOf(method), e);
+            throw e;
+        }
+    }
+
+    private static void weaveOverwrites(Session session, List<Overwriter> overwriters) {
+        if (overwriters.isEmpty()) return;
+
+        Map<String, MethodNode> methods = new HashMap<>();
+        for (MethodNode method : session.classNode.methods) methods.put(method.name + ":" + method.desc, method);
+
+        Set<String> overwritten = new HashSet<>();
+        for (Overwriter overwriter : overwriters) {
+            MethodNode targetMethod = methods.get(overwriter.getTargetKey());
+            if (targetMethod == null) {
+                new ModifyInternalException("overwrite target method not found: " + overwriter.getTargetKey()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                continue;
+            }
+            if (!overwritten.add(overwriter.getTargetKey())) {
+                new ModifyInternalException("method is already overwritten: " + overwriter.getTargetKey()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                continue;
+            }
+
+            session.isolate(targetMethod, overwriter, () -> overwriter.overwrite(targetMethod));
+        }
+    }
+
+    private static void weaveRedirects(Session session, List<Redirector> redirectors) {
+        if (redirectors.isEmpty()) return;
+
+        Map<String, MethodNode> methods = new HashMap<>();
+        for (MethodNode method : session.classNode.methods) if (method.instructions.size() != 0) methods.put(method.name + ":" + method.desc, method);
+
+        for (Redirector redirector : redirectors) {
+            MethodNode targetMethod = methods.get(redirector.getTargetKey());
+            if (targetMethod == null) {
+                new ModifyInternalException("redirect target method not found: " + redirector.getTargetKey()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                continue;
+            }
+
+            session.isolate(targetMethod, redirector, () -> redirector.redirect(session.classNode, targetMethod, session.hierarchy));
+        }
+    }
+
+    private static void weaveAllocationProbes(Session session, List<AllocationProber> probers) {
+        if (probers.isEmpty()) return;
+
+        Map<String, MethodNode> methods = new HashMap<>();
+        for (MethodNode method : session.classNode.methods) if (method.instructions.size() != 0) methods.put(method.name + ":" + method.desc, method);
+
+        Set<String> probed = new HashSet<>();
+        for (AllocationProber prober : probers) {
+            MethodNode targetMethod = methods.get(prober.getTargetKey());
+            if (targetMethod == null) {
+                new ModifyInternalException("allocation probe target method not found: " + prober.getTargetKey()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                continue;
+            }
+            if (!probed.add(prober.getTargetKey())) {
+                new ModifyInternalException("method is already allocation probed: " + prober.getTargetKey()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                continue;
+            }
+
+            session.isolate(targetMethod, prober, () -> prober.probe(session.classNode, targetMethod));
+        }
+    }
+
+    private static void weaveProbes(Session session, List<Prober> probers) {
+        if (probers.isEmpty()) return;
+
+        Map<String, MethodNode> methods = new HashMap<>();
+        for (MethodNode method : session.classNode.methods) methods.put(method.name + ":" + method.desc, method);
+
+        Set<String> probed = new HashSet<>();
+        for (Prober prober : probers) {
+            MethodNode targetMethod = methods.get(prober.getTargetKey());
+            if (targetMethod == null) {
+                new ModifyInternalException("probe target method not found: " + prober.getTargetKey()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                continue;
+            }
+            if (!probed.add(prober.getTargetKey())) {
+                new ModifyInternalException("method is already probed: " + prober.getTargetKey()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                continue;
+            }
+
+            session.isolate(targetMethod, prober, () -> prober.probe(session.classNode, targetMethod));
+        }
+    }
+
+    private static void weaveInjectors(Session session, List<Injector> injectors, Set<MethodNode> outlinedMethods, JitBudget budget) {
+        ClassNode classNode = session.classNode;
+        Map<String, MethodNode> methods = new HashMap<>();
+        for (MethodNode method : classNode.methods) if (method.instructions.size() != 0) methods.put(method.name + ":" + method.desc, method);
+
+        Map<MethodNode, List<Injector>> injectorsByMethod = new LinkedHashMap<>();
+        for (Injector injector : injectors) {
+            MethodNode targetMethod = methods.get(injector.getTargetKey());
+            if (injector.isInjectable(targetMethod)) injectorsByMethod.computeIfAbsent(targetMethod, key -> new ArrayList<>()).add(injector);
+        }
+
+        for (Map.Entry<MethodNode, List<Injector>> entry : injectorsByMethod.entrySet()) {
+            MethodNode targetMethod = entry.getKey();
+            List<Injector> methodInjectors = entry.getValue();
+            Set<Injector> undispatched = Collections.newSetFromMap(new IdentityHashMap<>());
+            int addedMethods = classNode.methods.size();
+            int before = JitBudget.sizeOf(targetMethod);
+            MethodNode original = copy(targetMethod);
+
+            if (!weaveIsolated(session, targetMethod, original, methodInjectors, undispatched, false)) continue;
+
+            boolean outlinable = budget.isOutlining() && methodInjectors.stream().anyMatch(Injector::isOutlinable);
+            if (outlinable && budget.shouldOutline(before, JitBudget.sizeOf(targetMethod))) {
+                session.rollback(targetMethod, original, addedMethods, classNode.fields.size());
+                if (!weaveIsolated(session, targetMethod, original, methodInjectors, undispatched, true)) continue;
+                outlinedMethods.add(targetMethod);
+            }
+
+            session.record(targetMethod, addedMethods, new ArrayList<>(methodInjectors));
+        }
+    }
+
+    private static boolean weaveIsolated(Session session, MethodNode targetMethod, MethodNode original, List<Injector> methodInjectors, Set<Injector> undispatched, boolean compact) {
+        int addedMethods = session.classNode.methods.size();
+        int addedFields = session.classNode.fields.size();
+
+        while (!methodInjectors.isEmpty()) {
+            try {
+                return weaveMethod(session.classNode, targetMethod, methodInjectors, undispatched, compact);
+            } catch (InjectFailure failure) {
+                session.rollback(targetMethod, original, addedMethods, addedFields);
+                session.degraded = true;
+                failure.getCause().printStackTrace(InternalBootManager.getInstance().getPrintStream());
+
+                if (failure.dispatcher != null) undispatched.addAll(failure.dispatcher.getInjectors());
+                else methodInjectors.remove(failure.injector);
+            }
+        }
+        return false;
+    }
+
+    private static boolean weaveMethod(ClassNode classNode, MethodNode targetMethod, List<Injector> methodInjectors, Set<Injector> undispatched, boolean compact) {
+        List<List<AbstractInsnNode>> points = new ArrayList<>();
+        for (Injector injector : methodInjectors) points.add(new ArrayList<>(injector.findInjectionPoints(targetMethod)));
+
+        Map<Integer, List<Dispatcher>> dispatchers = groupDispatchers(targetMethod, methodInjectors, undispatched, points, compact);
+
+        WeaveContext context = new WeaveContext(classNode, targetMethod, compact);
+        AbstractInsnNode headAnchor = null;
+        boolean changed = false;
+
+        for (int i = 0; i < methodInjectors.size(); i++) {
+            for (Dispatcher dispatcher : dispatchers.getOrDefault(i, Collections.emptyList())) {
+                boolean isHead = dispatcher.isHeadDispatcher();
+                AbstractInsnNode point = isHead && headAnchor != null ? headAnchor : dispatcher.getPoint();
+                AbstractInsnNode beforeHead = point.getPrevious();
+
+                try {
+                    if (!dispatcher.inject(context, point)) continue;
+                } catch (Throwable t) {
+                    throw new InjectFailure(null, dispatcher, t);
+                }
+
+                changed = true;
+                if (isHead) headAnchor = beforeHead == null ? targetMethod.instructions.getFirst() : beforeHead.getNext();
+            }
+
+            Injector injector = methodInjectors.get(i);
+            List<AbstractInsnNode> injectorPoints = points.get(i);
+            if (injectorPoints.isEmpty()) continue;
+
+            boolean isHead = injector.isHeadInjector();
+            if (isHead && headAnchor != null) injectorPoints = Collections.singletonList(headAnchor);
+            AbstractInsnNode beforeHead = isHead ? injectorPoints.get(0).getPrevious() : null;
+
+            try {
+                if (!injector.inject(context, injectorPoints)) continue;
+            } catch (Throwable t) {
+                throw new InjectFailure(injector, null, t);
+            }
+
+            changed = true;
+            if (isHead) headAnchor = beforeHead == null ? targetMethod.instructions.getFirst() : beforeHead.getNext();
+        }
+
+        return changed;
+    }
+
+    private static Map<Integer, List<Dispatcher>> groupDispatchers(MethodNode targetMethod, List<Injector> methodInjectors, Set<Injector> undispatched, List<List<AbstractInsnNode>> points, boolean compact) {
+        Map<AbstractInsnNode, List<Integer>> injectorsByPoint = new LinkedHashMap<>();
+        for (int i = 0; i < methodInjectors.size(); i++) {
+            if (!methodInjectors.get(i).isHeadInjector() && !methodInjectors.get(i).isReturnInjector()) continue;
+            for (AbstractInsnNode point : points.get(i)) injectorsByPoint.computeIfAbsent(point, key -> new ArrayList<>()).add(i);
+        }
+
+        Map<Integer, List<Dispatcher>> dispatchers = new HashMap<>();
+        for (Map.Entry<AbstractInsnNode, List<Integer>> entry : injectorsByPoint.entrySet()) {
+            List<Integer> run = new ArrayList<>();
+            for (int index : entry.getValue()) {
+                if (methodInjectors.get(index).isDispatchable(compact) && !undispatched.contains(methodInjectors.get(index))) run.add(index);
+                else {
+                    addDispatcher(targetMethod, entry.getKey(), methodInjectors, points, run, dispatchers);
+                    run = new ArrayList<>();
+                }
+            }
+            addDispatcher(targetMethod, entry.getKey(), methodInjectors, points, run, dispatchers);
+        }
+        return dispatchers;
+    }
+
+    private static void addDispatcher(MethodNode targetMethod, AbstractInsnNode point, List<Injector> methodInjectors, List<List<AbstractInsnNode>> points, List<Integer> run, Map<Integer, List<Dispatcher>> dispatchers) {
+        if (run.size() < 2) return;
+
+        List<Injector> group = new ArrayList<>();
+        for (int index : run) {
+            group.add(methodInjectors.get(index));
+            points.get(index).remove(point);
+        }
+        if (group.get(0).isHeadInjector()) Collections.reverse(group);
+
+        dispatchers.computeIfAbsent(run.get(0), key -> new ArrayList<>()).add(new Dispatcher(targetMethod, point, group));
+    }
+
+    private static MethodNode copy(MethodNode method) {
+        MethodNode copy = new MethodNode(Opcodes.ASM9, method.access, method.name, method.desc, method.signature, method.exceptions.toArray(new String[0]));
+        method.accept(copy);
+        return copy;
+    }
+
+    private static void restore(MethodNode method, MethodNode original) {
+        method.instructions = original.instructions;
+        method.tryCatchBlocks = original.tryCatchBlocks;
+        method.localVariables = original.localVariables;
+        method.visibleLocalVariableAnnotations = original.visibleLocalVariableAnnotations;
+        method.invisibleLocalVariableAnnotations = original.invisibleLocalVariableAnnotations;
+        method.maxLocals = original.maxLocals;
+        method.maxStack = original.maxStack;
+    }
+
+    private static String describe(Object culprit) {
+        if (culprit instanceof Injector) return "@Inject on " + ((Injector) culprit).getTargetKey();
+        if (culprit instanceof Redirector) return "@Redirect on " + ((Redirector) culprit).getTargetKey();
+        if (culprit instanceof Overwriter) return "@Overwrite of " + ((Overwriter) culprit).getTargetKey();
+        if (culprit instanceof Prober) return "@Probe on " + ((Prober) culprit).getTargetKey();
+        if (culprit instanceof AllocationProber) return "@AllocationProbe on " + ((AllocationProber) culprit).getTargetKey();
+        return String.valueOf(culprit);
+    }
+
+    private static void reportBudget(ClassNode classNode, Map<MethodNode, Integer> originalSizes, Set<MethodNode> modifiedMethods, Set<MethodNode> outlinedMethods, JitBudget budget) {
+        for (MethodNode method : classNode.methods) {
+            Integer before = originalSizes.get(method);
+            if (before == null || !modifiedMethods.contains(method)) continue;
+
+            int after = JitBudget.sizeOf(method);
+            if (budget.changesTier(before, after)) InternalBootManager.getInstance().getPrintStream().println("[JIT]: " + classNode.name + "." + method.name + method.desc + " " + before + " -> " + after + " bytes, " + budget.describe(before) + " -> " + budget.describe(after) + (outlinedMethods.contains(method) ? ", scaffolding outlined" : ""));
+        }
+    }
+
+    private static final class TreeBuilder extends ClassVisitor {
+        private final ClassNode classNode;
+        private final Set<String> targetMethods;
+
+        TreeBuilder(ClassNode classNode, Set<String> targetMethods) {
+            super(Opcodes.ASM9, classNode);
+            this.classNode = classNode;
+            this.targetMethods = targetMethods;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            MethodVisitor visitor = classNode.visitMethod(access, name, descriptor, signature, exceptions);
+            return targetMethods.contains(name + ":" + descriptor) ? visitor : null;
+        }
+    }
+
+    private static final class TreeEmitter extends ClassVisitor {
+        private final Session session;
+        private final ClassNode classNode;
+        private final Set<MethodNode> modifiedMethods;
+        private final int originalFields;
+        private final int originalMethods;
+        private int methodIndex;
+
+        TreeEmitter(ClassWriter writer, Session session, int originalFields, int originalMethods) {
+            super(Opcodes.ASM9, writer);
+            this.session = session;
+            this.classNode = session.classNode;
+            this.modifiedMethods = session.modifiedMethods;
+            this.originalFields = originalFields;
+            this.originalMethods = originalMethods;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            super.visit(version, access, name, signature, superName, classNode.interfaces.toArray(new String[0]));
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            MethodNode method = classNode.methods.get(methodIndex++);
+            if (!modifiedMethods.contains(method)) return super.visitMethod(access, name, descriptor, signature, exceptions);
+
+            emit(method);
+            return null;
+        }
+
+        private void emit(MethodNode method) {
+            try {
+                method.accept(cv);
+            } catch (RuntimeException e) {
+                throw new WriteFailure(session.culpritOf(method), e);
+            }
+        }
+
+        @Override
+        public void visitEnd() {
+            for (int i = originalFields; i < classNode.fields.size(); i++) classNode.fields.get(i).accept(cv);
+            for (int i = originalMethods; i < classNode.methods.size(); i++) emit(classNode.methods.get(i));
+            super.visitEnd();
+        }
+    }
+
+    private static final class Session {
+        private final ClassNode classNode;
+        private final TypeHierarchy.Trace hierarchy;
+        private final Set<MethodNode> modifiedMethods = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<MethodNode, List<Object>> contributors = new IdentityHashMap<>();
+        private boolean degraded;
+
+        Session(ClassNode classNode, TypeHierarchy.Trace hierarchy) {
+            this.classNode = classNode;
+            this.hierarchy = hierarchy;
+        }
+
+        void isolate(MethodNode targetMethod, Object contributor, BooleanSupplier step) {
+            MethodNode snapshot = copy(targetMethod);
+            int addedMethods = classNode.methods.size();
+            int addedFields = classNode.fields.size();
+
+            try {
+                if (!step.getAsBoolean()) return;
+            } catch (Throwable t) {
+                rollback(targetMethod, snapshot, addedMethods, addedFields);
+                degraded = true;
+                t.printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                return;
+            }
+
+            record(targetMethod, addedMethods, Collections.singletonList(contributor));
+        }
+
+        void rollback(MethodNode targetMethod, MethodNode snapshot, int addedMethods, int addedFields) {
+            restore(targetMethod, copy(snapshot));
+            classNode.methods.subList(addedMethods, classNode.methods.size()).clear();
+            classNode.fields.subList(addedFields, classNode.fields.size()).clear();
+        }
+
+        void record(MethodNode targetMethod, int addedMethods, List<?> applied) {
+            modifiedMethods.add(targetMethod);
+            contributors.computeIfAbsent(targetMethod, key -> new ArrayList<>()).addAll(applied);
+            for (MethodNode method : classNode.methods.subList(addedMethods, classNode.methods.size())) contributors.computeIfAbsent(method, key -> new ArrayList<>()).addAll(applied);
+        }
+
+        Object culpritOf(MethodNode method) {
+            List<Object> applied = contributors.get(method);
+            return applied == null || applied.isEmpty() ? null : applied.get(applied.size() - 1);
+        }
+    }
+
+    private static final class InjectFailure extends RuntimeException {
+        private final Injector injector;
+        private final Dispatcher dispatcher;
+
+        InjectFailure(Injector injector, Dispatcher dispatcher, Throwable cause) {
+            super(cause);
+            this.injector = injector;
+            this.dispatcher = dispatcher;
+        }
+    }
+
+    private static final class WriteFailure extends RuntimeException {
+        private final Object culprit;
+        private final RuntimeException error;
+
+        WriteFailure(Object culprit, RuntimeException error) {
+            super(error);
+            this.culprit = culprit;
+            this.error = error;
+        }
+    }
+
+    private ClassWeaver() {}
+}
@@ -0,0 +1,191 @@
+package io.byteops.internal.weave;
+
+import io.byteops.internal.InternalBootManager;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+@ApiStatus.Internal
+public final class DiskWeaveCache {
+    private static final int MAGIC = 0x424F5743;
+    private static final int FORMAT = 2;
+    private static final int HEADER_SIZE = 24;
+    private static final String SUFFIX = ".woven";
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    public DiskWeaveCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(directory);
+        long size = 0;
+        for (Path file : listFiles()) {
+            if (file.getFileName().toString().endsWith(SUFFIX)) size += Files.size(file);
+            else if (file.getFileName().toString().endsWith(".tmp") && Files.getLastModifiedTime(file).toMillis() < System.currentTimeMillis() - STALE_TEMP_MILLIS) Files.deleteIfExists(file);
+        }
+        totalBytes.set(size);
+        if (size > maxBytes) evict();
+    }
+
+    public WovenClass get(String key) {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) return null;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) return discard(file);
+
+            int typesLength = buffer.getInt();
+            int length = buffer.getInt();
+            long crc = buffer.getLong();
+            if (typesLength < 0 || length < 0 || (long) typesLength + length != buffer.remaining()) return discard(file);
+
+            byte[] types = new byte[typesLength];
+            byte[] data = new byte[length];
+            buffer.get(types).get(data);
+
+            CRC32 checksum = new CRC32();
+            checksum.update(types, 0, types.length);
+            checksum.update(data, 0, data.length);
+            if (checksum.getValue() != crc) return discard(file);
+
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {}
+
+            return new WovenClass(length == 0 ? ClassWeaver.UNCHANGED : data, readTypes(types), false);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void put(String key, WovenClass woven) {
+        Path file = resolve(key);
+        Path temp = null;
+
+        try {
+            byte[] types = writeTypes(woven.getResolved());
+            byte[] data = woven.getBytecode();
+
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), key, ".tmp");
+
+            CRC32 checksum = new CRC32();
+            checksum.update(types, 0, types.length);
+            checksum.update(data, 0, data.length);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT).putInt(types.length).putInt(data.length).putLong(checksum.getValue()).flip();
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer[] payload = {header, ByteBuffer.wrap(types), ByteBuffer.wrap(data)};
+                while (payload[2].hasRemaining()) channel.write(payload);
+                channel.force(true);
+            }
+
+            long previous = Files.exists(file) ? Files.size(file) : 0;
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+
+            if (totalBytes.addAndGet(HEADER_SIZE + types.length + data.length - previous) > maxBytes) evict();
+        } catch (IOException e) {
+            e.printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private static byte[] writeTypes(List<TypeHierarchy.TypeInfo> types) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(types.size());
+            for (TypeHierarchy.TypeInfo type : types) type.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<TypeHierarchy.TypeInfo> readTypes(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int count = in.readInt();
+        if (count < 0) throw new IOException("invalid type count " + count);
+
+        List<TypeHierarchy.TypeInfo> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) types.add(TypeHierarchy.TypeInfo.read(in));
+        return types;
+    }
+
+    private synchronized void evict() {
+        if (totalBytes.get() <= maxBytes) return;
+
+        try {
+            List<Path> files = new ArrayList<>();
+            Map<Path, Long> modified = new HashMap<>();
+            Map<Path, Long> sizes = new HashMap<>();
+            long size = 0;
+
+            for (Path file : listFiles()) {
+                if (!file.getFileName().toString().endsWith(SUFFIX)) continue;
+                files.add(file);
+                modified.put(file, Files.getLastModifiedTime(file).toMillis());
+                sizes.put(file, Files.size(file));
+                size += sizes.get(file);
+            }
+
+            files.sort(Comparator.comparingLong(modified::get));
+
+            long target = maxBytes - maxBytes / 10;
+            for (Path file : files) {
+                if (size <= target) break;
+                if (Files.deleteIfExists(file)) size -= sizes.get(file);
+            }
+
+            totalBytes.set(size);
+        } catch (IOException e) {
+            e.printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(directory, 2)) {
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        }
+        return files;
+    }
+
+    private WovenClass discard(Path file) {
+        try {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) totalBytes.addAndGet(-size);
+        } catch (IOException ignored) {}
+        return null;
+    }
+
+    private Path resolve(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+}
@@ -0,0 +1,85 @@
+package io.byteops.internal.weave;
+
+import io.byteops.modify.util.ErrorPolicy;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.tree.*;
+
+import java.util.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class HandlerPool {
+    private final MethodNode method;
+    private final Map<List<TryCatchBlockNode>, LabelNode> handlers = new HashMap<>();
+    private final Set<LabelNode> shared = new HashSet<>();
+
+    public HandlerPool(MethodNode method) {
+        this.method = method;
+    }
+
+    public static InsnList buildWrapper() {
+        InsnList wrapper = new InsnList();
+        wrapper.add(new TypeInsnNode(NEW, "java/lang/RuntimeException"));
+        wrapper.add(new InsnNode(DUP_X1));
+        wrapper.add(new InsnNode(SWAP));
+        wrapper.add(new MethodInsnNode(INVOKESPECIAL, "java/lang/RuntimeException", "<init>", "(Ljava/lang/Throwable;)V", false));
+        wrapper.add(new InsnNode(ATHROW));
+        return wrapper;
+    }
+
+    public static void guard(MethodNode method) {
+        guard(method, ErrorPolicy.WRAP, null, 0);
+    }
+
+    public static void guard(MethodNode method, ErrorPolicy policy, String injector, int maxFailures) {
+        for (AbstractInsnNode insn : method.instructions.toArray()) if (insn.getOpcode() == ARETURN) method.instructions.insertBefore(insn, new MethodInsnNode(INVOKEVIRTUAL, "io/byteops/modify/util/InjectResult", "checkError", "()Lio/byteops/modify/util/InjectResult;", false));
+
+        LabelNode start = new LabelNode(new Label());
+        LabelNode end = new LabelNode(new Label());
+        LabelNode handler = new LabelNode(new Label());
+
+        method.instructions.insert(start);
+        method.instructions.add(end);
+        method.instructions.add(handler);
+        if (policy == ErrorPolicy.WRAP) method.instructions.add(buildWrapper());
+        else {
+            method.instructions.add(RuntimeCalls.recordFailure(policy, injector, maxFailures));
+            method.instructions.add(new FieldInsnNode(GETSTATIC, "io/byteops/modify/util/InjectResult", "PASS", "Lio/byteops/modify/util/InjectResult;"));
+            method.instructions.add(new InsnNode(ARETURN));
+        }
+        method.tryCatchBlocks.add(new TryCatchBlockNode(start, end, handler, "java/lang/Throwable"));
+        method.access |= ACC_SYNTHETIC;
+    }
+
+    public void protect(LabelNode start, LabelNode end, LabelNode continueLabel) {
+        List<TryCatchBlockNode> enclosing = findEnclosing(start);
+        LabelNode handler = handlers.get(enclosing);
+        if (handler == null) {
+            handler = new LabelNode(new Label());
+
+            InsnList handlerCode = new InsnList();
+            handlerCode.add(new JumpInsnNode(GOTO, continueLabel));
+            handlerCode.add(handler);
+            handlerCode.add(buildWrapper());
+            method.instructions.insert(end, handlerCode);
+
+            handlers.put(enclosing, handler);
+            shared.add(handler);
+        }
+
+        method.tryCatchBlocks.add(new TryCatchBlockNode(start, end, handler, "java/lang/Throwable"));
+    }
+
+    private List<TryCatchBlockNode> findEnclosing(LabelNode start) {
+        int index = method.instructions.indexOf(start);
+
+        List<TryCatchBlockNode> enclosing = new ArrayList<>();
+        for (TryCatchBlockNode block : method.tryCatchBlocks) {
+            if (shared.contains(block.handler)) continue;
+            if (method.instructions.indexOf(block.start) <= index && index < method.instructions.indexOf(block.end)) enclosing.add(block);
+        }
+        return enclosing;
+    }
+}
@@ -0,0 +1,20 @@
+package io.byteops.internal.weave;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+
+@ApiStatus.Internal
+public final class HierarchyClassWriter extends ClassWriter {
+    private final TypeHierarchy.Trace hierarchy;
+
+    public HierarchyClassWriter(ClassReader reader, int flags, TypeHierarchy.Trace hierarchy) {
+        super(reader, flags);
+        this.hierarchy = hierarchy;
+    }
+
+    @Override
+    protected String getCommonSuperClass(String type1, String type2) {
+        return hierarchy.getCommonSuperClass(type1, type2);
+    }
+}
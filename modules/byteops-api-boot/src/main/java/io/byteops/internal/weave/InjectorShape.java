@@ -0,0 +1,147 @@
+package io.byteops.internal.weave;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.SourceInterpreter;
+import org.objectweb.asm.tree.analysis.SourceValue;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class InjectorShape {
+    private static final String INJECT_RESULT = "io/byteops/modify/util/InjectResult";
+
+    private static final int PASS = 1;
+    private static final int STOP = 2;
+    private static final int ERROR = 4;
+    private static final int LOCALS = 8;
+    private static final int UNKNOWN = 16;
+
+    public static final InjectorShape FULL = new InjectorShape(UNKNOWN, true, false);
+
+    private final int results;
+    private final boolean declaresExceptions;
+    private final boolean discardsLocals;
+
+    private InjectorShape(int results, boolean declaresExceptions, boolean discardsLocals) {
+        this.results = results;
+        this.declaresExceptions = declaresExceptions;
+        this.discardsLocals = discardsLocals;
+    }
+
+    public static InjectorShape analyze(String owner, MethodNode body, boolean declaresExceptions) {
+        Frame<SourceValue>[] frames;
+        try {
+            frames = new Analyzer<>(new SourceInterpreter()).analyze(owner, body);
+        } catch (AnalyzerException | RuntimeException e) {
+            return FULL;
+        }
+
+        int results = 0;
+        boolean setsLocals = false;
+        boolean discardsLocals = false;
+        for (int i = 0; i < frames.length; i++) {
+            AbstractInsnNode insn = body.instructions.get(i);
+            if (isSetLocal(insn)) {
+                setsLocals = true;
+                discardsLocals |= insn.getNext() != null && insn.getNext().getOpcode() == POP;
+            }
+            if (insn.getOpcode() != ARETURN || frames[i] == null) continue;
+            results |= resolve(body.instructions, frames, top(frames[i], 0), new HashSet<>());
+        }
+        if (setsLocals && results != 0) results |= LOCALS;
+
+        return new InjectorShape(results == 0 ? UNKNOWN : results, declaresExceptions, discardsLocals);
+    }
+
+    public static InjectorShape merge(Collection<InjectorShape> shapes) {
+        int results = 0;
+        boolean declaresExceptions = false;
+        boolean discardsLocals = false;
+        for (InjectorShape shape : shapes) {
+            results |= shape.results;
+            declaresExceptions |= shape.declaresExceptions;
+            discardsLocals |= shape.discardsLocals;
+        }
+        return new InjectorShape(results, declaresExceptions, discardsLocals);
+    }
+
+    private static int resolve(InsnList instructions, Frame<SourceValue>[] frames, SourceValue value, Set<AbstractInsnNode> visited) {
+        if (value == null || value.insns.isEmpty()) return UNKNOWN;
+
+        int results = 0;
+        for (AbstractInsnNode source : value.insns) results |= resolve(instructions, frames, source, visited);
+        return results;
+    }
+
+    private static int resolve(InsnList instructions, Frame<SourceValue>[] frames, AbstractInsnNode source, Set<AbstractInsnNode> visited) {
+        if (!visited.add(source)) return 0;
+
+        Frame<SourceValue> frame = frames[instructions.indexOf(source)];
+        if (frame == null) return 0;
+
+        switch (source.getOpcode()) {
+            case GETSTATIC: {
+                FieldInsnNode field = (FieldInsnNode) source;
+                return INJECT_RESULT.equals(field.owner) && "PASS".equals(field.name) ? PASS : UNKNOWN;
+            }
+            case INVOKESTATIC: {
+                MethodInsnNode call = (MethodInsnNode) source;
+                if (!INJECT_RESULT.equals(call.owner)) return UNKNOWN;
+                if ("pass".equals(call.name)) return PASS;
+                if ("stop".equals(call.name)) return STOP;
+                if ("error".equals(call.name)) return ERROR;
+                return UNKNOWN;
+            }
+            case INVOKEVIRTUAL: {
+                MethodInsnNode call = (MethodInsnNode) source;
+                if (!isSetLocal(call)) return UNKNOWN;
+                return LOCALS | resolve(instructions, frames, top(frame, Type.getArgumentTypes(call.desc).length), visited);
+            }
+            case CHECKCAST:
+            case ASTORE:
+                return resolve(instructions, frames, top(frame, 0), visited);
+            case ALOAD:
+                return resolve(instructions, frames, frame.getLocal(((VarInsnNode) source).var), visited);
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    private static boolean isSetLocal(AbstractInsnNode insn) {
+        return insn.getOpcode() == INVOKEVIRTUAL && INJECT_RESULT.equals(((MethodInsnNode) insn).owner) && ((MethodInsnNode) insn).name.startsWith("setLocal");
+    }
+
+    private static SourceValue top(Frame<SourceValue> frame, int depth) {
+        int index = frame.getStackSize() - 1 - depth;
+        return index < 0 ? null : frame.getStack(index);
+    }
+
+    public boolean isPassOnly() {
+        return results == PASS;
+    }
+
+    public boolean mayStop() {
+        return (results & (STOP | ERROR | UNKNOWN)) != 0;
+    }
+
+    public boolean mayUpdateLocals() {
+        return (results & (LOCALS | UNKNOWN)) != 0;
+    }
+
+    public boolean discardsLocals() {
+        return discardsLocals;
+    }
+
+    public boolean needsCatch() {
+        return declaresExceptions || (results & (ERROR | UNKNOWN)) != 0;
+    }
+}
@@ -0,0 +1,127 @@
+package io.byteops.internal.weave;
+
+import io.byteops.modify.util.At;
+import io.byteops.modify.util.Selector;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.tree.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class InsnMatcher {
+    private final At at;
+    private final String owner;
+    private final String name;
+    private final String desc;
+    private final boolean[] opcodes;
+    private final boolean membersOnly;
+
+    private InsnMatcher(At at, String owner, String name, String desc, boolean[] opcodes, boolean membersOnly) {
+        this.at = at;
+        this.owner = owner;
+        this.name = name;
+        this.desc = desc;
+        this.opcodes = opcodes;
+        this.membersOnly = membersOnly || owner != null || name != null || desc != null;
+    }
+
+    public static InsnMatcher forRedirect(At at, Selector selector) {
+        return of(at, selector, new int[0], true);
+    }
+
+    public static InsnMatcher forInject(At at, Selector selector, int[] opcodes) {
+        return of(at, selector, opcodes, false);
+    }
+
+    private static InsnMatcher of(At at, Selector selector, int[] opcodes, boolean membersOnly) {
+        String owner = selector.owner() == void.class ? null : selector.owner().getName().replace('.', '/');
+        String name = selector.name().isEmpty() ? null : selector.name();
+        String desc = selector.desc().isEmpty() ? null : selector.desc();
+
+        boolean[] opcodeFilter = null;
+        if (opcodes.length != 0) {
+            opcodeFilter = new boolean[256];
+            for (int opcode : opcodes) if (opcode >= 0 && opcode < opcodeFilter.length) opcodeFilter[opcode] = true;
+        }
+
+        return new InsnMatcher(at, owner, name, desc, opcodeFilter, membersOnly);
+    }
+
+    public boolean matches(AbstractInsnNode insn) {
+        int opcode = insn.getOpcode();
+        if (opcode < 0 || opcodes != null && !opcodes[opcode] || RuntimeCalls.isRuntimeCall(insn)) return false;
+        return membersOnly ? matchesMember(insn) : matchesCategory(opcode);
+    }
+
+    private boolean matchesMember(AbstractInsnNode insn) {
+        switch (at) {
+            case INVOKE:
+                if (!(insn instanceof MethodInsnNode) || "<init>".equals(((MethodInsnNode) insn).name)) return false;
+                return matches(((MethodInsnNode) insn).owner, ((MethodInsnNode) insn).name, ((MethodInsnNode) insn).desc);
+            case GET:
+                if (insn.getOpcode() != GETFIELD && insn.getOpcode() != GETSTATIC) return false;
+                return matches(((FieldInsnNode) insn).owner, ((FieldInsnNode) insn).name, ((FieldInsnNode) insn).desc);
+            case PUT:
+                if (insn.getOpcode() != PUTFIELD && insn.getOpcode() != PUTSTATIC) return false;
+                return matches(((FieldInsnNode) insn).owner, ((FieldInsnNode) insn).name, ((FieldInsnNode) insn).desc);
+            case NEW:
+                if (insn.getOpcode() != NEW) return false;
+                if (owner != null && !owner.equals(((TypeInsnNode) insn).desc)) return false;
+                if (desc == null) return true;
+                MethodInsnNode constructor = findConstructor((TypeInsnNode) insn);
+                return constructor != null && desc.equals(constructor.desc);
+            default:
+                return false;
+        }
+    }
+
+    private boolean matchesCategory(int opcode) {
+        switch (at) {
+            case INVOKE:
+                return isMethodInvoke(opcode) || isBinaryOp(opcode) || opcode == CHECKCAST || opcode == INSTANCEOF;
+            case GET:
+                return opcode == GETFIELD || opcode == GETSTATIC || opcode == ILOAD || opcode == LLOAD || opcode == FLOAD || opcode == DLOAD || opcode == ALOAD;
+            case PUT:
+                return opcode == PUTFIELD || opcode == PUTSTATIC || opcode == ISTORE || opcode == LSTORE || opcode == FSTORE || opcode == DSTORE || opcode == ASTORE;
+            case NEW:
+                return opcode == NEW || opcode == NEWARRAY || opcode == ANEWARRAY || opcode == MULTIANEWARRAY;
+            default:
+                return false;
+        }
+    }
+
+    private boolean matches(String insnOwner, String insnName, String insnDesc) {
+        return (owner == null || owner.equals(insnOwner)) && (name == null || name.equals(insnName)) && (desc == null || desc.equals(insnDesc));
+    }
+
+    private static boolean isMethodInvoke(int opcode) {
+        return opcode == INVOKEVIRTUAL || opcode == INVOKESTATIC || opcode == INVOKESPECIAL || opcode == INVOKEINTERFACE || opcode == INVOKEDYNAMIC;
+    }
+
+    private static boolean isBinaryOp(int opcode) {
+        return opcode == IADD || opcode == ISUB || opcode == IMUL || opcode == IDIV || opcode == IREM ||
+                opcode == LADD || opcode == LSUB || opcode == LMUL || opcode == LDIV || opcode == LREM ||
+                opcode == FADD || opcode == FSUB || opcode == FMUL || opcode == FDIV || opcode == FREM ||
+                opcode == DADD || opcode == DSUB || opcode == DMUL || opcode == DDIV || opcode == DREM ||
+                opcode == ISHL || opcode == ISHR || opcode == IUSHR ||
+                opcode == LSHL || opcode == LSHR || opcode == LUSHR ||
+                opcode == IAND || opcode == IOR || opcode == IXOR ||
+                opcode == LAND || opcode == LOR || opcode == LXOR;
+    }
+
+    public static MethodInsnNode findConstructor(TypeInsnNode newInsn) {
+        int depth = 0;
+        for (AbstractInsnNode insn = newInsn.getNext(); insn != null; insn = insn.getNext()) {
+            if (insn.getOpcode() == NEW && ((TypeInsnNode) insn).desc.equals(newInsn.desc)) depth++;
+            else if (insn.getOpcode() == INVOKESPECIAL && ((MethodInsnNode) insn).owner.equals(newInsn.desc) && "<init>".equals(((MethodInsnNode) insn).name)) {
+                if (depth == 0) return (MethodInsnNode) insn;
+                depth--;
+            }
+        }
+        return null;
+    }
+
+    public At getAt() {
+        return at;
+    }
+}
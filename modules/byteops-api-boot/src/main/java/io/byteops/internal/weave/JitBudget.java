@@ -0,0 +1,65 @@
+package io.byteops.internal.weave;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.commons.CodeSizeEvaluator;
+import org.objectweb.asm.tree.MethodNode;
+
+@ApiStatus.Internal
+public final class JitBudget {
+    public static final int MAX_INLINE_SIZE = 35;
+    public static final int FREQ_INLINE_SIZE = 325;
+    public static final int HUGE_METHOD_LIMIT = 8000;
+
+    public static final JitBudget DEFAULT = new JitBudget(MAX_INLINE_SIZE, FREQ_INLINE_SIZE, HUGE_METHOD_LIMIT, true);
+
+    private final int maxInlineSize;
+    private final int freqInlineSize;
+    private final int hugeMethodLimit;
+    private final boolean outline;
+
+    public JitBudget(int maxInlineSize, int freqInlineSize, int hugeMethodLimit, boolean outline) {
+        this.maxInlineSize = maxInlineSize;
+        this.freqInlineSize = freqInlineSize;
+        this.hugeMethodLimit = hugeMethodLimit;
+        this.outline = outline;
+    }
+
+    public static int sizeOf(MethodNode method) {
+        CodeSizeEvaluator evaluator = new CodeSizeEvaluator(null);
+        method.accept(evaluator);
+        return evaluator.getMaxSize();
+    }
+
+    public boolean isOutlining() {
+        return outline;
+    }
+
+    public boolean shouldOutline(int before, int after) {
+        return tier(after) > tier(before);
+    }
+
+    public boolean changesTier(int before, int after) {
+        return tier(before) != tier(after);
+    }
+
+    public String describe(int size) {
+        switch (tier(size)) {
+            case 0: return "inlinable";
+            case 1: return "inlinable when hot (MaxInlineSize=" + maxInlineSize + ")";
+            case 2: return "not inlinable (FreqInlineSize=" + freqInlineSize + ")";
+            default: return "not compiled (HugeMethodLimit=" + hugeMethodLimit + ")";
+        }
+    }
+
+    private int tier(int size) {
+        if (size <= maxInlineSize) return 0;
+        if (size <= freqInlineSize) return 1;
+        if (size <= hugeMethodLimit) return 2;
+        return 3;
+    }
+
+    @Override
+    public String toString() {
+        return maxInlineSize + ":" + freqInlineSize + ":" + hugeMethodLimit + ":" + outline;
+    }
+}
@@ -0,0 +1,83 @@
+package io.byteops.internal.weave;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@ApiStatus.Internal
+public final class MemoryWeaveCache {
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Map<String, WovenClass> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<WovenClass>> pending = new ConcurrentHashMap<>();
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    public MemoryWeaveCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    public WovenClass computeIfAbsent(String key, TypeHierarchy hierarchy, Supplier<WovenClass> weaver) {
+        WovenClass woven = entries.get(key);
+        if (woven != null && woven.matches(hierarchy)) return woven;
+
+        CompletableFuture<WovenClass> future = new CompletableFuture<>();
+        CompletableFuture<WovenClass> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            woven = join(existing);
+            return woven.matches(hierarchy) ? woven : weaver.get();
+        }
+
+        try {
+            woven = entries.get(key);
+            if (woven == null || !woven.matches(hierarchy)) {
+                woven = weaver.get();
+                if (!woven.isDegraded()) put(key, woven);
+            }
+            future.complete(woven);
+            return woven;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(key, future);
+        }
+    }
+
+    public void put(String key, WovenClass woven) {
+        if (entries.putIfAbsent(key, woven) != null) return;
+
+        order.add(key);
+        totalBytes.addAndGet(woven.getBytecode().length);
+
+        while (entries.size() > maxEntries || totalBytes.get() > maxBytes) {
+            String eldest = order.poll();
+            if (eldest == null) break;
+
+            WovenClass removed = entries.remove(eldest);
+            if (removed != null) totalBytes.addAndGet(-removed.getBytecode().length);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        order.clear();
+        totalBytes.set(0);
+    }
+
+    private static WovenClass join(CompletableFuture<WovenClass> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.byteops.internal.weave;
+
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.exceptions.ModifyInternalException;
+import io.byteops.internal.format.data.ProvideField;
+import io.byteops.internal.format.data.ProvideMethod;
+import io.byteops.internal.format.functional.ExtendField;
+import io.byteops.internal.format.functional.ExtendMethod;
+import io.byteops.internal.instrumentation.JarClassLoader;
+import io.byteops.internal.util.DescriptorFormat;
+import io.byteops.internal.util.visitor.InjectMethodVisitor;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+@ApiStatus.Internal
+public final class MethodTemplate {
+    private final AbstractInsnNode[] instructions;
+    private final LabelNode[] labels;
+    private final TryCatchBlockNode[] tryCatchBlocks;
+    private final LocalVariableNode[] localVariables;
+    private final int maxLocals;
+    private final int maxStack;
+
+    public MethodTemplate(InsnList instructions, List<TryCatchBlockNode> tryCatchBlocks, List<LocalVariableNode> localVariables, List<LineNumberNode> lineNumbers, int maxLocals, int maxStack) {
+        Map<LabelNode, List<LineNumberNode>> linesByLabel = new HashMap<>();
+        for (LineNumberNode line : lineNumbers) linesByLabel.computeIfAbsent(line.start, key -> new ArrayList<>()).add(line);
+
+        List<AbstractInsnNode> snapshot = new ArrayList<>(instructions.size() + lineNumbers.size());
+        Set<LabelNode> labels = new LinkedHashSet<>();
+
+        for (AbstractInsnNode insn : instructions.toArray()) {
+            snapshot.add(insn);
+            collectLabels(insn, labels);
+            if (insn instanceof LabelNode && linesByLabel.containsKey(insn)) snapshot.addAll(linesByLabel.get(insn));
+        }
+        for (TryCatchBlockNode tcb : tryCatchBlocks) Collections.addAll(labels, tcb.start, tcb.end, tcb.handler);
+        for (LocalVariableNode local : localVariables) Collections.addAll(labels, local.start, local.end);
+
+        this.instructions = snapshot.toArray(new AbstractInsnNode[0]);
+        this.labels = labels.toArray(new LabelNode[0]);
+        this.tryCatchBlocks = tryCatchBlocks.toArray(new TryCatchBlockNode[0]);
+        this.localVariables = localVariables.toArray(new LocalVariableNode[0]);
+        this.maxLocals = maxLocals;
+        this.maxStack = maxStack;
+    }
+
+    public static MethodTemplate extract(String kind, Method method, Class<?> targetClass, ProvideField[] provideFields, ExtendField[] extendFields, ProvideMethod[] provideMethods, ExtendMethod[] extendMethods) {
+        String targetName = targetClass.getName().replace('.', '/');
+        Map<String, String> fieldMap = new HashMap<>();
+        for (ProvideField pf : provideFields) fieldMap.put(pf.field().getName() + ":" + DescriptorFormat.getDescriptor(pf.field().getType()), targetName);
+        for (ExtendField ef : extendFields) fieldMap.put(ef.getField().getName() + ":" + DescriptorFormat.getDescriptor(ef.getField().getType()), targetName);
+
+        Map<String, String> methodMap = new HashMap<>();
+        for (ProvideMethod pm : provideMethods) methodMap.put(pm.method().getName() + ":" + DescriptorFormat.getMethodDescriptor(pm.method()), targetName);
+        for (ExtendMethod em : extendMethods) methodMap.put(em.getMethod().getName() + ":" + DescriptorFormat.getMethodDescriptor(em.getMethod()), targetName);
+
+        return extract(kind, method, targetClass, fieldMap, methodMap);
+    }
+
+    private static MethodTemplate extract(String kind, Method method, Class<?> targetClass, Map<String, String> fieldMap, Map<String, String> methodMap) {
+        byte[] classBytes = JarClassLoader.getInstance().getClassBytes(method.getDeclaringClass().getName());
+        if (classBytes == null) {
+            new ModifyInternalException("[" + kind + "] classBytes = null for " + method.getName()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return null;
+        }
+
+        String descriptor = DescriptorFormat.getMethodDescriptor(method);
+        InjectMethodVisitor visitor = new InjectMethodVisitor(method, targetClass, fieldMap, methodMap);
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+                if (name.equals(method.getName()) && desc.equals(descriptor)) return visitor;
+                return null;
+            }
+        }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+        if (visitor.instructions == null) {
+            new ModifyInternalException("instructions is null for " + method.getName()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return null;
+        }
+
+        return new MethodTemplate(visitor.instructions, visitor.tryCatchBlocks, visitor.localVariables, visitor.lineNumbers, visitor.maxLocals, visitor.maxStack);
+    }
+
+    private static void collectLabels(AbstractInsnNode insn, Set<LabelNode> labels) {
+        if (insn instanceof LabelNode) labels.add((LabelNode) insn);
+        else if (insn instanceof JumpInsnNode) labels.add(((JumpInsnNode) insn).label);
+        else if (insn instanceof TableSwitchInsnNode) {
+            labels.add(((TableSwitchInsnNode) insn).dflt);
+            labels.addAll(((TableSwitchInsnNode) insn).labels);
+        } else if (insn instanceof LookupSwitchInsnNode) {
+            labels.add(((LookupSwitchInsnNode) insn).dflt);
+            labels.addAll(((LookupSwitchInsnNode) insn).labels);
+        }
+    }
+
+    public boolean isEmpty() {
+        return instructions.length == 0;
+    }
+
+    public boolean hasTryCatchBlocks() {
+        return tryCatchBlocks.length > 0;
+    }
+
+    public int getMaxLocals() {
+        return maxLocals;
+    }
+
+    public MethodNode instantiate(int access, String name, String descriptor) {
+        Map<LabelNode, LabelNode> labelMap = new HashMap<>(labels.length * 2);
+        for (LabelNode label : labels) labelMap.put(label, new LabelNode());
+
+        MethodNode methodNode = new MethodNode(access, name, descriptor, null, null);
+        for (AbstractInsnNode insn : instructions) methodNode.instructions.add(insn.clone(labelMap));
+        for (TryCatchBlockNode tcb : tryCatchBlocks) methodNode.tryCatchBlocks.add(new TryCatchBlockNode(labelMap.get(tcb.start), labelMap.get(tcb.end), labelMap.get(tcb.handler), tcb.type));
+        for (LocalVariableNode local : localVariables) methodNode.localVariables.add(new LocalVariableNode(local.name, local.desc, local.signature, labelMap.get(local.start), labelMap.get(local.end), local.index));
+
+        methodNode.maxLocals = maxLocals;
+        methodNode.maxStack = maxStack;
+        return methodNode;
+    }
+}
@@ -0,0 +1,103 @@
+package io.byteops.internal.weave;
+
+import io.byteops.modify.util.ErrorPolicy;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.tree.*;
+
+import static org.objectweb.asm.Opcodes.*;
+
+@ApiStatus.Internal
+public final class RuntimeCalls {
+    private static final String RUNTIME = "io/byteops/modify/runtime/";
+    private static final String SWITCH = "io/byteops/modify/runtime/InjectorSwitch";
+    private static final String SAMPLER = "io/byteops/modify/runtime/InjectorSampler";
+    private static final String ASYNC = "io/byteops/modify/runtime/AsyncInjectors";
+    private static final String FAILURES = "io/byteops/modify/runtime/InjectorFailures";
+    private static final String LATENCY = "io/byteops/modify/runtime/LatencyProbes";
+    private static final String ALLOCATIONS = "io/byteops/modify/runtime/AllocationSites";
+    private static final Handle SWITCH_BOOTSTRAP = new Handle(H_INVOKESTATIC, SWITCH, "bootstrap", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/String;)Ljava/lang/invoke/CallSite;", false);
+    private static final Handle SAMPLER_BOOTSTRAP = new Handle(H_INVOKESTATIC, SAMPLER, "bootstrap", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/String;I)Ljava/lang/invoke/CallSite;", false);
+
+    private static final Handle LATENCY_BOOTSTRAP = new Handle(H_INVOKESTATIC, LATENCY, "bootstrap", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/String;)Ljava/lang/invoke/CallSite;", false);
+    private static final Handle ALLOCATIONS_BOOTSTRAP = new Handle(H_INVOKESTATIC, ALLOCATIONS, "bootstrap", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/String;Ljava/lang/String;IILjava/lang/String;I)Ljava/lang/invoke/CallSite;", false);
+    private static final Handle ASYNC_BOOTSTRAP = new Handle(H_INVOKESTATIC, ASYNC, "bootstrap", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/invoke/MethodHandle;Ljava/lang/String;II)Ljava/lang/invoke/CallSite;", false);
+
+    public static boolean isRuntimeCall(AbstractInsnNode insn) {
+        if (insn instanceof InvokeDynamicInsnNode) return ((InvokeDynamicInsnNode) insn).bsm.getOwner().startsWith(RUNTIME);
+        return insn instanceof MethodInsnNode && ((MethodInsnNode) insn).owner.startsWith(RUNTIME);
+    }
+
+    public static boolean supportsIndy(int classVersion) {
+        return (classVersion & 0xFFFF) >= V1_7;
+    }
+
+    public static InsnList switchCheck(int classVersion, String injector) {
+        InsnList check = new InsnList();
+        if (supportsIndy(classVersion)) {
+            check.add(new InvokeDynamicInsnNode("enabled", "()Z", SWITCH_BOOTSTRAP, injector));
+        } else {
+            check.add(new LdcInsnNode(injector));
+            check.add(new MethodInsnNode(INVOKESTATIC, SWITCH, "isEnabled", "(Ljava/lang/String;)Z", false));
+        }
+        return check;
+    }
+
+    public static InsnList sampleCheck(int classVersion, String injector, int rate) {
+        InsnList check = new InsnList();
+        if (supportsIndy(classVersion)) {
+            check.add(new InvokeDynamicInsnNode("sample", "()Z", SAMPLER_BOOTSTRAP, injector, rate));
+        } else {
+            check.add(new LdcInsnNode(injector));
+            check.add(new LdcInsnNode(rate));
+            check.add(new MethodInsnNode(INVOKESTATIC, SAMPLER, "sample", "(Ljava/lang/String;I)Z", false));
+        }
+        return check;
+    }
+
+    public static InsnList recordLatency(int classVersion, String probe) {
+        InsnList record = new InsnList();
+        if (supportsIndy(classVersion)) {
+            record.add(new InvokeDynamicInsnNode("record", "(J)V", LATENCY_BOOTSTRAP, probe));
+        } else {
+            record.add(new LdcInsnNode(probe));
+            record.add(new MethodInsnNode(INVOKESTATIC, LATENCY, "record", "(JLjava/lang/String;)V", false));
+        }
+        return record;
+    }
+
+    public static InsnList recordAllocation(int classVersion, String owner, String method, int index, int line, String type, int rate) {
+        InsnList record = new InsnList();
+        if (supportsIndy(classVersion)) {
+            record.add(new InvokeDynamicInsnNode("allocate", "()V", ALLOCATIONS_BOOTSTRAP, owner, method, index, line, type, rate));
+        } else {
+            record.add(new LdcInsnNode(owner));
+            record.add(new LdcInsnNode(method));
+            record.add(new LdcInsnNode(index));
+            record.add(new LdcInsnNode(line));
+            record.add(new LdcInsnNode(type));
+            record.add(new LdcInsnNode(rate));
+            record.add(new MethodInsnNode(INVOKESTATIC, ALLOCATIONS, "record", "(Ljava/lang/String;Ljava/lang/String;IILjava/lang/String;I)V", false));
+        }
+        return record;
+    }
+
+    public static AbstractInsnNode asyncRing(String owner, String name, String desc, boolean isStatic, String injector, boolean block, int maxFailures) {
+        Handle handle = new Handle(isStatic ? H_INVOKESTATIC : H_INVOKESPECIAL, owner, name, desc, false);
+        return new InvokeDynamicInsnNode(name, "()Lio/byteops/modify/runtime/AsyncRing;", ASYNC_BOOTSTRAP, handle, injector, block ? 1 : 0, maxFailures);
+    }
+
+    public static InsnList recordFailure(ErrorPolicy policy, String injector, int maxFailures) {
+        InsnList record = new InsnList();
+        record.add(new LdcInsnNode(injector));
+        if (policy == ErrorPolicy.DISABLE) {
+            record.add(new LdcInsnNode(maxFailures));
+            record.add(new MethodInsnNode(INVOKESTATIC, FAILURES, "disable", "(Ljava/lang/Throwable;Ljava/lang/String;I)V", false));
+        } else {
+            record.add(new MethodInsnNode(INVOKESTATIC, FAILURES, "swallow", "(Ljava/lang/Throwable;Ljava/lang/String;)V", false));
+        }
+        return record;
+    }
+
+    private RuntimeCalls() {}
+}
@@ -0,0 +1,33 @@
+package io.byteops.internal.weave;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+
+@ApiStatus.Internal
+public final class SlotAllocator {
+    private final MethodNode method;
+    private final int base;
+    private int next;
+
+    public SlotAllocator(MethodNode method) {
+        this.method = method;
+        this.base = method.maxLocals;
+        this.next = base;
+    }
+
+    public void reset() {
+        next = base;
+    }
+
+    public int allocate(Type type) {
+        return allocate(type.getSize());
+    }
+
+    public int allocate(int size) {
+        int slot = next;
+        next += size;
+        method.maxLocals = Math.max(method.maxLocals, next);
+        return slot;
+    }
+}
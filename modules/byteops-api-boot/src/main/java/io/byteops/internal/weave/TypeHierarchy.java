@@ -0,0 +1,246 @@
+package io.byteops.internal.weave;
+
+import io.byteops.internal.instrumentation.JarClassLoader;
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@ApiStatus.Internal
+public final class TypeHierarchy {
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final Map<String, TypeInfo> JDK_TYPES = new ConcurrentHashMap<>();
+    private static final TypeHierarchy BOOTSTRAP = new TypeHierarchy(null);
+    private static final Map<ClassLoader, TypeHierarchy> HIERARCHIES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static TypeHierarchy forLoader(ClassLoader loader) {
+        if (loader == null) return BOOTSTRAP;
+        return HIERARCHIES.computeIfAbsent(loader, TypeHierarchy::new);
+    }
+
+    private final WeakReference<ClassLoader> loader;
+    private final Map<String, TypeInfo> types = new ConcurrentHashMap<>();
+    private final Map<String, CommonSuperClass> commonSuperClasses = new ConcurrentHashMap<>();
+
+    private TypeHierarchy(ClassLoader loader) {
+        this.loader = loader == null ? null : new WeakReference<>(loader);
+    }
+
+    public Trace trace(TypeInfo self) {
+        return new Trace(this, self);
+    }
+
+    public boolean matches(Collection<TypeInfo> resolved) {
+        for (TypeInfo expected : resolved) {
+            try {
+                if (!expected.equals(resolve(expected.name, null, null))) return false;
+            } catch (TypeNotPresentException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getCommonSuperClass(String type1, String type2, TypeInfo self, Map<String, TypeInfo> trace) {
+        if (type1.equals(type2)) return type1;
+        if (self != null && (self.name.equals(type1) || self.name.equals(type2))) return computeCommonSuperClass(type1, type2, self, trace);
+
+        String key = type1.compareTo(type2) < 0 ? type1 + ';' + type2 : type2 + ';' + type1;
+        CommonSuperClass result = commonSuperClasses.get(key);
+        if (result == null) {
+            Map<String, TypeInfo> resolved = new HashMap<>();
+            result = new CommonSuperClass(computeCommonSuperClass(type1, type2, self, resolved), resolved.values().toArray(new TypeInfo[0]));
+            commonSuperClasses.put(key, result);
+        }
+        for (TypeInfo info : result.resolved) trace.put(info.name, info);
+        return result.name;
+    }
+
+    private boolean isAssignable(String type, String from, TypeInfo self, Map<String, TypeInfo> trace) {
+        if (type.equals(from) || OBJECT.equals(type)) return true;
+        return isAssignableFrom(type, resolve(from, self, trace), self, trace);
+    }
+
+    private String computeCommonSuperClass(String type1, String type2, TypeInfo self, Map<String, TypeInfo> trace) {
+        TypeInfo info1 = resolve(type1, self, trace);
+        TypeInfo info2 = resolve(type2, self, trace);
+
+        if (isAssignableFrom(type1, info2, self, trace)) return type1;
+        if (isAssignableFrom(type2, info1, self, trace)) return type2;
+        if (info1.isInterface || info2.isInterface) return OBJECT;
+
+        TypeInfo current = info1;
+        while (current.superName != null) {
+            TypeInfo superInfo = resolve(current.superName, self, trace);
+            if (isAssignableFrom(current.superName, info2, self, trace)) return current.superName;
+            current = superInfo;
+        }
+        return OBJECT;
+    }
+
+    private boolean isAssignableFrom(String type, TypeInfo from, TypeInfo self, Map<String, TypeInfo> trace) {
+        if (OBJECT.equals(type)) return true;
+
+        Deque<TypeInfo> pending = new ArrayDeque<>();
+        Set<String> visited = new HashSet<>();
+        pending.add(from);
+
+        while (!pending.isEmpty()) {
+            TypeInfo current = pending.poll();
+            if (!visited.add(current.name)) continue;
+            if (current.name.equals(type)) return true;
+
+            if (current.superName != null) pending.add(resolve(current.superName, self, trace));
+            for (String anInterface : current.interfaces) pending.add(resolve(anInterface, self, trace));
+        }
+        return false;
+    }
+
+    private TypeInfo resolve(String name, TypeInfo self, Map<String, TypeInfo> trace) {
+        if (self != null && self.name.equals(name)) return self;
+        if (isJdkType(name)) return resolveJdk(name);
+
+        TypeInfo info = types.get(name);
+        if (info == null) {
+            info = load(name);
+            if (info == null) throw new TypeNotPresentException(name.replace('/', '.'), null);
+            types.put(name, info);
+        }
+        if (trace != null) trace.put(name, info);
+        return info;
+    }
+
+    private static TypeInfo resolveJdk(String name) {
+        TypeInfo info = JDK_TYPES.get(name);
+        if (info != null) return info;
+
+        info = read(name, ClassLoader.getSystemResourceAsStream(name + ".class"));
+        if (info == null) throw new TypeNotPresentException(name.replace('/', '.'), null);
+        JDK_TYPES.put(name, info);
+        return info;
+    }
+
+    private TypeInfo load(String name) {
+        ClassLoader classLoader = loader == null ? null : loader.get();
+        String resource = name + ".class";
+
+        TypeInfo info = read(name, classLoader == null ? ClassLoader.getSystemResourceAsStream(resource) : classLoader.getResourceAsStream(resource));
+        if (info != null) return info;
+
+        JarClassLoader jarClassLoader = JarClassLoader.getInstance();
+        if (jarClassLoader != null) {
+            byte[] bytes = jarClassLoader.findClassBytes(name.replace('/', '.'));
+            if (bytes != null) return of(bytes);
+        }
+        return null;
+    }
+
+    private static TypeInfo read(String name, InputStream stream) {
+        if (stream == null) return null;
+
+        try (InputStream is = stream) {
+            TypeInfo info = of(is.readAllBytes());
+            return name.equals(info.name) ? info : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isJdkType(String name) {
+        return name.startsWith("java/") || name.startsWith("javax/") || name.startsWith("jdk/") || name.startsWith("sun/");
+    }
+
+    public static TypeInfo of(byte[] bytecode) {
+        ClassReader reader = new ClassReader(bytecode);
+        return new TypeInfo(reader.getClassName(), reader.getSuperName(), reader.getInterfaces(), (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0);
+    }
+
+    public static TypeInfo of(String name, String superName, List<String> interfaces, int access) {
+        return new TypeInfo(name, superName, interfaces.toArray(new String[0]), (access & Opcodes.ACC_INTERFACE) != 0);
+    }
+
+    public static final class Trace {
+        private final TypeHierarchy hierarchy;
+        private final TypeInfo self;
+        private final Map<String, TypeInfo> resolved = new HashMap<>();
+
+        private Trace(TypeHierarchy hierarchy, TypeInfo self) {
+            this.hierarchy = hierarchy;
+            this.self = self;
+        }
+
+        public String getCommonSuperClass(String type1, String type2) {
+            return hierarchy.getCommonSuperClass(type1, type2, self, resolved);
+        }
+
+        public boolean isAssignable(String type, String from) {
+            return hierarchy.isAssignable(type, from, self, resolved);
+        }
+
+        public List<TypeInfo> getResolved() {
+            return new ArrayList<>(resolved.values());
+        }
+    }
+
+    private static final class CommonSuperClass {
+        private final String name;
+        private final TypeInfo[] resolved;
+
+        private CommonSuperClass(String name, TypeInfo[] resolved) {
+            this.name = name;
+            this.resolved = resolved;
+        }
+    }
+
+    public static final class TypeInfo {
+        private final String name;
+        private final String superName;
+        private final String[] interfaces;
+        private final boolean isInterface;
+
+        private TypeInfo(String name, String superName, String[] interfaces, boolean isInterface) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.isInterface = isInterface;
+        }
+
+        public void write(DataOutput out) throws IOException {
+            out.writeUTF(name);
+            out.writeUTF(superName == null ? "" : superName);
+            out.writeBoolean(isInterface);
+            out.writeShort(interfaces.length);
+            for (String anInterface : interfaces) out.writeUTF(anInterface);
+        }
+
+        public static TypeInfo read(DataInput in) throws IOException {
+            String name = in.readUTF();
+            String superName = in.readUTF();
+            boolean isInterface = in.readBoolean();
+            String[] interfaces = new String[in.readUnsignedShort()];
+            for (int i = 0; i < interfaces.length; i++) interfaces[i] = in.readUTF();
+            return new TypeInfo(name, superName.isEmpty() ? null : superName, interfaces, isInterface);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TypeInfo)) return false;
+            TypeInfo other = (TypeInfo) o;
+            return isInterface == other.isInterface && name.equals(other.name) && Objects.equals(superName, other.superName) && Arrays.equals(interfaces, other.interfaces);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, superName, isInterface) * 31 + Arrays.hashCode(interfaces);
+        }
+    }
+}
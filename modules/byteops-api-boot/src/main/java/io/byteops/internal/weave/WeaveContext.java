@@ -0,0 +1,50 @@
+package io.byteops.internal.weave;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@ApiStatus.Internal
+public final class WeaveContext {
+    private final ClassNode classNode;
+    private final MethodNode targetMethod;
+    private final boolean compact;
+    private final SlotAllocator slots;
+    private final HandlerPool handlers;
+    private final Set<String> addedMethods = new HashSet<>();
+
+    public WeaveContext(ClassNode classNode, MethodNode targetMethod, boolean compact) {
+        this.classNode = classNode;
+        this.targetMethod = targetMethod;
+        this.compact = compact;
+        this.slots = new SlotAllocator(targetMethod);
+        this.handlers = new HandlerPool(targetMethod);
+    }
+
+    public ClassNode getClassNode() {
+        return classNode;
+    }
+
+    public MethodNode getTargetMethod() {
+        return targetMethod;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public void addMethod(MethodNode method) {
+        if (addedMethods.add(method.name + method.desc)) classNode.methods.add(method);
+    }
+
+    public SlotAllocator getSlots() {
+        return slots;
+    }
+
+    public HandlerPool getHandlers() {
+        return handlers;
+    }
+}
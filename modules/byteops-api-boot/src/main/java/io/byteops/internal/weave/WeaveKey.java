@@ -0,0 +1,62 @@
+package io.byteops.internal.weave;
+
+import io.byteops.internal.InternalBootManager;
+import io.byteops.internal.format.ModifyClass;
+import io.byteops.internal.instrumentation.JarClassLoader;
+import io.byteops.internal.util.ContentHash;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@ApiStatus.Internal
+public final class WeaveKey {
+    public static final String VERSION = loadVersion();
+
+    private static final Map<ModifyClass, byte[]> FINGERPRINTS = new ConcurrentHashMap<>();
+
+    public static String of(byte[] bytecode, ModifyClass[] modifyClasses) {
+        MessageDigest digest = ContentHash.newDigest();
+        digest.update(VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(InternalBootManager.getInstance().getJitBudget().toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update((byte) (InternalBootManager.getInstance().isKillSwitch() ? 1 : 0));
+        digest.update(ContentHash.sha256(bytecode));
+        for (ModifyClass modifyClass : modifyClasses) digest.update(FINGERPRINTS.computeIfAbsent(modifyClass, WeaveKey::fingerprint));
+        return ContentHash.toHex(digest.digest());
+    }
+
+    private static byte[] fingerprint(ModifyClass modifyClass) {
+        Set<String> jarDigests = new TreeSet<>();
+        addJarDigest(jarDigests, modifyClass.getModifyClass().getName());
+        for (String dependency : modifyClass.getDependencies()) addJarDigest(jarDigests, dependency.replace('/', '.'));
+
+        MessageDigest digest = ContentHash.newDigest();
+        digest.update(modifyClass.getModifyClass().getName().getBytes(StandardCharsets.UTF_8));
+        for (String jarDigest : jarDigests) digest.update(jarDigest.getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+
+    private static void addJarDigest(Set<String> jarDigests, String className) {
+        byte[] jarDigest = JarClassLoader.getInstance().getJarDigest(className);
+        if (jarDigest != null) jarDigests.add(ContentHash.toHex(jarDigest));
+    }
+
+    private static String loadVersion() {
+        try (InputStream is = WeaveKey.class.getResourceAsStream("/io/byteops/version.properties")) {
+            if (is == null) return "unknown";
+            Properties properties = new Properties();
+            properties.load(is);
+            return properties.getProperty("version", "unknown");
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private WeaveKey() {}
+}
@@ -0,0 +1,34 @@
+package io.byteops.internal.weave;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.List;
+
+@ApiStatus.Internal
+public final class WovenClass {
+    private final byte[] bytecode;
+    private final List<TypeHierarchy.TypeInfo> resolved;
+    private final boolean degraded;
+
+    public WovenClass(byte[] bytecode, List<TypeHierarchy.TypeInfo> resolved, boolean degraded) {
+        this.bytecode = bytecode;
+        this.resolved = resolved;
+        this.degraded = degraded;
+    }
+
+    public byte[] getBytecode() {
+        return bytecode;
+    }
+
+    public List<TypeHierarchy.TypeInfo> getResolved() {
+        return resolved;
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    public boolean matches(TypeHierarchy hierarchy) {
+        return hierarchy.matches(resolved);
+    }
+}
@@ -8,16 +8,23 @@ import io.byteops.internal.format.data.ArgumentParameter;
 import io.byteops.internal.format.data.LocalParameter;
 import io.byteops.internal.format.data.ProvideField;
 import io.byteops.internal.format.data.ProvideMethod;
+import io.byteops.internal.format.functional.AllocationProber;
 import io.byteops.internal.format.functional.ExtendField;
 import io.byteops.internal.format.functional.ExtendMethod;
 import io.byteops.internal.format.functional.Injector;
 import io.byteops.internal.format.functional.InterfaceImplementation;
+import io.byteops.internal.format.functional.Overwriter;
+import io.byteops.internal.format.functional.Prober;
+import io.byteops.internal.format.functional.Redirector;
 import io.byteops.internal.instrumentation.DataCacheRegistry;
 import io.byteops.internal.instrumentation.JarClassLoader;
 import io.byteops.internal.instrumentation.MultiJsonParser;
+import io.byteops.internal.util.ClassCodeAnalyze;
+import io.byteops.internal.util.DescriptorFormat;
 import io.byteops.internal.util.ModifyConfigFormat;
 import io.byteops.modify.*;
 import io.byteops.modify.util.InjectResult;
+import io.byteops.modify.util.MethodReference;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -85,10 +92,16 @@ final class ShadowCacheRegistry extends DataCacheRegistry {
                     List<ExtendField> extendFields = new ArrayList<>();
                     List<ExtendMethod> extendMethods = new ArrayList<>();
                     List<Injector> injectMethodsList = new ArrayList<>();
+                    List<Redirector> redirectorList = new ArrayList<>();
+                    List<Overwriter> overwriterList = new ArrayList<>();
+                    List<Prober> proberList = new ArrayList<>();
+                    List<AllocationProber> allocationProberList = new ArrayList<>();
                     List<InterfaceImplementation> interfaceImplementationList = new ArrayList<>();
 
                     List<Method> tempExtendMethods = new ArrayList<>();
                     List<Method> tempInjectMethods = new ArrayList<>();
+                    List<Method> tempRedirectMethods = new ArrayList<>();
+                    List<Method> tempOverwriteMethods = new ArrayList<>();
                     Map<Method, List<Parameter>> tempArgumentParameters = new HashMap<>();
                     Map<Method, List<Parameter>> tempLocalParameters = new HashMap<>();
 
@@ -103,7 +116,13 @@ final class ShadowCacheRegistry extends DataCacheRegistry {
                         interfaceImplementationList.add(new InterfaceImplementation(interfaceClass));
                     }
 
-                    for(Field field: modifyClass.getDeclaredFields()) {
+                    Field[] declaredFields = modifyClass.getDeclaredFields();
+                    Arrays.sort(declaredFields, Comparator.comparing(Field::getName));
+
+                    Method[] declaredMethods = modifyClass.getDeclaredMethods();
+                    Arrays.sort(declaredMethods, Comparator.comparing(Method::getName).thenComparing(method -> DescriptorFormat.getMethodDescriptor(method)));
+
+                    for(Field field: declaredFields) {
                         if(field.isAnnotationPresent(Provide.class) && field.isAnnotationPresent(Extend.class)) {
                             new ModifyFormatException("field cannot be annotated by @Provide and @Extend").printStackTrace(InternalBootManager.getInstance().getPrintStream());
                             continue;
@@ -112,7 +131,7 @@ final class ShadowCacheRegistry extends DataCacheRegistry {
                         if(field.isAnnotationPresent(Extend.class)) extendFields.add(new ExtendField(field));
                     }
 
-                    for(Method method: modifyClass.getDeclaredMethods()) {
+                    for(Method method: declaredMethods) {
                         if(method.isAnnotationPresent(Provide.class) && method.isAnnotationPresent(Extend.class)) {
                             new ModifyFormatException("method cannot be annotated by @Provide and @Extend").printStackTrace(InternalBootManager.getInstance().getPrintStream());
                             continue;
@@ -125,6 +144,22 @@ final class ShadowCacheRegistry extends DataCacheRegistry {
                             new ModifyFormatException("method cannot be annotated by @Extend and @Inject").printStackTrace(InternalBootManager.getInstance().getPrintStream());
                             continue;
                         }
+                        if(method.isAnnotationPresent(Redirect.class) && (method.isAnnotationPresent(Provide.class) || method.isAnnotationPresent(Extend.class) || method.isAnnotationPresent(Inject.class))) {
+                            new ModifyFormatException("method annotated by @Redirect cannot be annotated by @Provide, @Extend or @Inject").printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                            continue;
+                        }
+                        if(method.isAnnotationPresent(Redirect.class)) {
+                            if(!Modifier.isStatic(method.getModifiers())) {
+                                new ModifyFormatException("@Redirect method must be static: " + method.getName()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                                continue;
+                            }
+                            tempRedirectMethods.add(method);
+                        }
+                        if(method.isAnnotationPresent(Overwrite.class) && (method.isAnnotationPresent(Provide.class) || method.isAnnotationPresent(Extend.class) || method.isAnnotationPresent(Inject.class) || method.isAnnotationPresent(Redirect.class))) {
+                            new ModifyFormatException("method annotated by @Overwrite cannot be annotated by @Provide, @Extend, @Inject or @Redirect").printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                            continue;
+                        }
+                        if(method.isAnnotationPresent(Overwrite.class)) tempOverwriteMethods.add(method);
                         if(method.isAnnotationPresent(Provide.class)) provideMethods.add(new ProvideMethod(method));
                         if(method.isAnnotationPresent(Extend.class)) tempExtendMethods.add(method);
                         if(method.isAnnotationPresent(Inject.class)) {
@@ -196,11 +231,52 @@ final class ShadowCacheRegistry extends DataCacheRegistry {
                                     locals.toArray(new LocalParameter[0])
                             ));
                         }
+                        for (Method method : tempOverwriteMethods) {
+                            if (!isValidOverwrite(method, targetClass)) continue;
+                            overwriterList.add(new Overwriter(
+                                    method,
+                                    targetClass,
+                                    provideFields.toArray(new ProvideField[0]),
+                                    extendFields.toArray(new ExtendField[0]),
+                                    provideMethods.toArray(new ProvideMethod[0]),
+                                    extendMethods.toArray(new ExtendMethod[0])
+                            ));
+                        }
+                        if (modifyClass.isAnnotationPresent(Probe.class)) {
+                            for (MethodReference reference : modifyClass.getAnnotation(Probe.class).value()) {
+                                if (!isValidProbe(reference, targetClass)) continue;
+                                proberList.add(new Prober(modifyClass, targetClass, reference));
+                            }
+                        }
+                        if (modifyClass.isAnnotationPresent(AllocationProbe.class) && isValidAllocationProbe(modifyClass.getAnnotation(AllocationProbe.class))) {
+                            AllocationProbe allocationProbe = modifyClass.getAnnotation(AllocationProbe.class);
+                            for (MethodReference reference : allocationProbe.value()) {
+                                if (!isValidProbe(reference, targetClass)) continue;
+                                allocationProberList.add(new AllocationProber(targetClass, allocationProbe, reference));
+                            }
+                        }
+                        for (Method method : tempRedirectMethods) {
+                            redirectorList.add(new Redirector(
+                                    method,
+                                    targetClass,
+                                    provideFields.toArray(new ProvideField[0]),
+                                    extendFields.toArray(new ExtendField[0]),
+                                    provideMethods.toArray(new ProvideMethod[0]),
+                                    extendMethods.toArray(new ExtendMethod[0])
+                            ));
+                        }
                     }
 
                     JarClassLoader.getInstance().loadClass(modifyClass.getAnnotation(Modify.class).value().getName());
                     Class<?> targetClass = modifyClass.getAnnotation(Modify.class).value();
 
+                    byte[] modifyByteCode = JarClassLoader.getInstance().getClassBytes(modifyClass.getName());
+                    if (modifyByteCode == null) {
+                        new ModifyInternalException("class bytecode not found in GammaClassLoader cache").printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                        continue;
+                    }
+                    String[] dependencies = ClassCodeAnalyze.getDependencyClosure(modifyByteCode, targetClass.getName().replace('.', '/'));
+
                     ModifyClass modifyClassRef = new ModifyClass(
                             modifyClass,
                             targetClass,
@@ -209,7 +285,12 @@ final class ShadowCacheRegistry extends DataCacheRegistry {
                             provideMethods.toArray(new ProvideMethod[0]),
                             extendMethods.toArray(new ExtendMethod[0]),
                             injectMethodsList.toArray(new Injector[0]),
-                            interfaceImplementationList.toArray(new InterfaceImplementation[0])
+                            redirectorList.toArray(new Redirector[0]),
+                            overwriterList.toArray(new Overwriter[0]),
+                            proberList.toArray(new Prober[0]),
+                            allocationProberList.toArray(new AllocationProber[0]),
+                            interfaceImplementationList.toArray(new InterfaceImplementation[0]),
+                            dependencies
                     );
 
                     modifyClasses.add(modifyClassRef);
@@ -257,6 +338,33 @@ final class ShadowCacheRegistry extends DataCacheRegistry {
                             InternalBootManager.getInstance().getPrintStream().println("- priority: " + injector.getPriority());
                             InternalBootManager.getInstance().getPrintStream().println();
                         }
+                        for (Overwriter overwriter : modifyClassRef.getOverwriters()) {
+                            InternalBootManager.getInstance().getPrintStream().println("[Parser]: serialize Overwriter: ");
+                            InternalBootManager.getInstance().getPrintStream().println("- method: " + overwriter.getAnnotation().method().method());
+                            InternalBootManager.getInstance().getPrintStream().println("- with: " + overwriter.getMethod().getName());
+                            InternalBootManager.getInstance().getPrintStream().println();
+                        }
+                        for (Prober prober : modifyClassRef.getProbers()) {
+                            InternalBootManager.getInstance().getPrintStream().println("[Parser]: serialize Prober: ");
+                            InternalBootManager.getInstance().getPrintStream().println("- method: " + prober.getReference().method());
+                            InternalBootManager.getInstance().getPrintStream().println("- probe: " + prober.getProbeName());
+                            InternalBootManager.getInstance().getPrintStream().println();
+                        }
+                        for (AllocationProber prober : modifyClassRef.getAllocationProbers()) {
+                            InternalBootManager.getInstance().getPrintStream().println("[Parser]: serialize AllocationProber: ");
+                            InternalBootManager.getInstance().getPrintStream().println("- method: " + prober.getReference().method());
+                            InternalBootManager.getInstance().getPrintStream().println("- target: " + prober.getAnnotation().target());
+                            InternalBootManager.getInstance().getPrintStream().println("- sample: " + prober.getAnnotation().sample());
+                            InternalBootManager.getInstance().getPrintStream().println();
+                        }
+                        for (Redirector redirector : modifyClassRef.getRedirectors()) {
+                            InternalBootManager.getInstance().getPrintStream().println("[Parser]: serialize Redirector: ");
+                            InternalBootManager.getInstance().getPrintStream().println("- method: " + redirector.getAnnotation().method().method());
+                            InternalBootManager.getInstance().getPrintStream().println("- point: " + redirector.getAnnotation().at());
+                            InternalBootManager.getInstance().getPrintStream().println("- target: " + redirector.getAnnotation().target());
+                            InternalBootManager.getInstance().getPrintStream().println("- index: " + redirector.getAnnotation().index());
+                            InternalBootManager.getInstance().getPrintStream().println();
+                        }
                     }
 
                 } catch (ClassNotFoundException e) {
@@ -264,5 +372,64 @@ final class ShadowCacheRegistry extends DataCacheRegistry {
                 }
             }
         }
+
+        buildIndex();
+    }
+
+    private static boolean isValidAllocationProbe(AllocationProbe allocationProbe) {
+        if(allocationProbe.sample() >= 0) return true;
+
+        new ModifyFormatException("@AllocationProbe sample must not be negative: " + allocationProbe.sample()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        return false;
+    }
+
+    private static boolean isValidProbe(MethodReference reference, Class<?> targetClass) {
+        if(reference.method().equals("<init>") || reference.method().equals("<clinit>")) return true;
+
+        try {
+            Method target = targetClass.getDeclaredMethod(reference.method(), reference.parameters());
+            if(target.getReturnType() != reference.result()) {
+                new ModifyFormatException("@Probe method result must match target method: " + reference.method()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                return false;
+            }
+            if(Modifier.isAbstract(target.getModifiers()) || Modifier.isNative(target.getModifiers())) {
+                new ModifyFormatException("@Probe target method must have a body: " + reference.method()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                return false;
+            }
+        } catch (NoSuchMethodException e) {
+            new ModifyFormatException("@Probe target method not found: " + reference.method()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        } catch (LinkageError e) {
+            new ModifyInternalException(e).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isValidOverwrite(Method method, Class<?> targetClass) {
+        MethodReference reference = method.getAnnotation(Overwrite.class).method();
+        if(reference.method().equals("<init>") || reference.method().equals("<clinit>")) {
+            new ModifyFormatException("@Overwrite cannot replace constructors or static init blocks: " + method.getName()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        }
+        if(!Arrays.equals(method.getParameterTypes(), reference.parameters()) || method.getReturnType() != reference.result()) {
+            new ModifyFormatException("@Overwrite method signature must match target method: " + method.getName() + " -> " + reference.method()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        }
+
+        try {
+            Method target = targetClass.getDeclaredMethod(reference.method(), reference.parameters());
+            if(Modifier.isStatic(target.getModifiers()) != Modifier.isStatic(method.getModifiers())) {
+                new ModifyFormatException("@Overwrite method must be static only if target method is static: " + method.getName()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+                return false;
+            }
+        } catch (NoSuchMethodException e) {
+            new ModifyFormatException("@Overwrite target method not found: " + reference.method()).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        } catch (LinkageError e) {
+            new ModifyInternalException(e).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return false;
+        }
+        return true;
     }
 }
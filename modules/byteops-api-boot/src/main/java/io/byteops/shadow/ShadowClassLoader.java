@@ -1,6 +1,5 @@
 package io.byteops.shadow;
 
-import io.byteops.internal.InternalBootManager;
 import io.byteops.internal.instrumentation.JarClassLoader;
 
 import java.io.File;
@@ -16,6 +15,7 @@ final class ShadowClassLoader extends JarClassLoader {
     void registerJar(File jarFile) throws Exception {
         JarFile jar = new JarFile(jarFile);
         jarFiles.put(jarFile.getAbsolutePath(), jar);
+        resourceStore.register(jarFile, jar);
         super.addURL(jarFile.toURI().toURL());
     }
 
@@ -27,13 +27,7 @@ final class ShadowClassLoader extends JarClassLoader {
     public void close() {
         byteCache.clear();
         classCache.clear();
-        for (JarFile jar : jarFiles.values()) {
-            try {
-                jar.close();
-            } catch (Exception e) {
-                e.printStackTrace(InternalBootManager.getInstance().getPrintStream());
-            }
-        }
         jarFiles.clear();
+        resourceStore.close();
     }
 }
@@ -1,104 +1,112 @@
 package io.byteops.shadow;
 
 import io.byteops.internal.InternalBootManager;
-import io.byteops.internal.exceptions.ModifyFormatException;
 import io.byteops.internal.exceptions.ModifyInternalException;
 import io.byteops.internal.format.ModifyClass;
-import io.byteops.internal.format.functional.ExtendField;
-import io.byteops.internal.format.functional.ExtendMethod;
-import io.byteops.internal.format.functional.Injector;
-import io.byteops.internal.format.functional.InterfaceImplementation;
 import io.byteops.internal.instrumentation.DataCacheRegistry;
-import io.byteops.internal.instrumentation.JarClassLoader;
 import io.byteops.internal.instrumentation.FormatModifyTransformer;
-import io.byteops.internal.util.ClassCodeAnalyze;
-import io.byteops.internal.util.ClassLoaderExtend;
-import io.byteops.internal.util.DescriptorFormat;
-import io.byteops.modify.util.MethodReference;
-
+import io.byteops.internal.instrumentation.TargetIndex;
+import io.byteops.internal.weave.ClassWeaver;
+import io.byteops.internal.weave.DiskWeaveCache;
+import io.byteops.internal.weave.MemoryWeaveCache;
+import io.byteops.internal.weave.TypeHierarchy;
+import io.byteops.internal.weave.WeaveKey;
+import io.byteops.internal.weave.WovenClass;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.instrument.ClassFileTransformer;
 import java.security.ProtectionDomain;
-import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 final class ShadowModifyTransformer extends FormatModifyTransformer implements ClassFileTransformer {
     static final ShadowModifyTransformer instance = new ShadowModifyTransformer();
 
+    private static final MemoryWeaveCache memoryCache = new MemoryWeaveCache(4096, 64L * 1024 * 1024);
+    private static volatile DiskWeaveCache weaveCache;
+
     public static void init() {
         setInstance(instance);
     }
 
+    static void initWeaveCache() {
+        File directory = InternalBootManager.getInstance().getWeaveCacheDirectory();
+        if (directory == null) return;
+
+        try {
+            weaveCache = new DiskWeaveCache(directory.toPath(), InternalBootManager.getInstance().getWeaveCacheMaxBytes());
+        } catch (IOException e) {
+            new ModifyInternalException(e, "weave cache disabled: " + directory).printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        }
+    }
+
+    static void preWeave() {
+        int threads = InternalBootManager.getInstance().getPreWeaveThreads();
+        if (threads <= 0) return;
+
+        TargetIndex targetIndex = DataCacheRegistry.getInstance().getTargetIndex();
+        if (targetIndex.size() == 0) return;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "ByteOps-PreWeave-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+
+        ClassLoader loader = ClassLoader.getSystemClassLoader();
+        for (String className : targetIndex.getTargetNames()) executor.execute(() -> preWeave(className, targetIndex.get(className), loader));
+        executor.shutdown();
+    }
+
+    private static void preWeave(String className, ModifyClass[] modifyClasses, ClassLoader loader) {
+        try {
+            byte[] bytecode;
+            try (InputStream is = loader.getResourceAsStream(className + ".class")) {
+                if (is == null) return;
+                bytecode = is.readAllBytes();
+            }
+
+            String key = WeaveKey.of(bytecode, modifyClasses);
+            memoryCache.computeIfAbsent(key, TypeHierarchy.forLoader(loader), () -> weave(key, bytecode, modifyClasses, loader));
+        } catch (Throwable t) {
+            t.printStackTrace(InternalBootManager.getInstance().getPrintStream());
+        }
+    }
+
     @Override
     public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] bytecode) {
         if(className == null) return null;
 
-        List<Injector> injectMethods = new ArrayList<>();
-
-        if (DataCacheRegistry.getInstance().isTargetPath(className.replace("/", "."))) {
-            for (ModifyClass modifyClass : DataCacheRegistry.getInstance().getCache()) {
-                if (modifyClass.getTargetClass().getName().replace('.', '/').equals(className)) {
-                    for (Class<?> blockedClass : InternalBootManager.getInstance().getBlockedClasses()) {
-                        if (blockedClass.getName().replace(".", "/").equals(className)) {
-                            new ModifyFormatException("modifying this class is unsupported").printStackTrace(InternalBootManager.getInstance().getPrintStream());
-                            return null;
-                        }
-                    }
-
-                    for (String str : unsupportedPaths) {
-                        if (className.startsWith(str)) {
-                            new ModifyFormatException("modifying this class is unsupported").printStackTrace(InternalBootManager.getInstance().getPrintStream());
-                            return null;
-                        }
-                    }
-
-                    if (!acceptedClassLoaders.contains(loader)) {
-                        for (Class<?> targetClass : JarClassLoader.getInstance().getApplyToDefine()) {
-                            try {
-                                loader.loadClass(targetClass.getName());
-                            } catch (ClassNotFoundException e) {
-                                byte[] targetClassBytes = JarClassLoader.getInstance().getClassBytes(targetClass.getName());
-                                if (targetClassBytes == null) {
-                                    new ModifyInternalException(e, "class bytecode not found in GammaClassLoader cache").printStackTrace(InternalBootManager.getInstance().getPrintStream());
-                                    continue;
-                                }
-                                ClassLoaderExtend.defineClass(loader, targetClass.getName(), targetClassBytes, 0, targetClassBytes.length, targetClass.getProtectionDomain());
-                            }
-                        }
-                        acceptedClassLoaders.add(loader);
-                    }
-
-                    Set<String> definedClasses = new HashSet<>();
-                    definedClasses.add(className.replace('/', '.'));
-
-                    byte[] modifyByteCode = JarClassLoader.getInstance().getClassBytes(modifyClass.getModifyClass().getName());
-                    if (modifyByteCode == null) {
-                        new ModifyInternalException("class bytecode not found in GammaClassLoader cache").printStackTrace(InternalBootManager.getInstance().getPrintStream());
-                        continue;
-                    }
-
-                    String[] targetClasses = ClassCodeAnalyze.getClassPathsRecursive(modifyByteCode, loader, className);
-
-                    for (String targetClass : targetClasses) defineClassRecursive(loader, targetClass, protectionDomain, definedClasses, className);
-                    for (ExtendField extendField : modifyClass.getExtendFields()) bytecode = extendField.modify(bytecode);
-                    for (ExtendMethod extendMethod : modifyClass.getExtendMethods()) bytecode = extendMethod.modify(bytecode);
-                    for (InterfaceImplementation implementation : modifyClass.getImplementations()) bytecode = implementation.modify(bytecode);
-
-                    Map<String, Integer> map = new HashMap<>();
-                    for (Injector inject : modifyClass.getInjectors()) {
-                        MethodReference injectSig = inject.getAnnotation().method();
-                        String key = injectSig.method() + ":" + DescriptorFormat.getMethodDescriptor(injectSig);
-
-                        int currentCount = map.getOrDefault(key, 0);
-                        inject.preparing(bytecode, currentCount);
-                        injectMethods.add(inject);
-                        map.put(key, currentCount + 1);
-                    }
-                }
-            }
+        ModifyClass[] modifyClasses = DataCacheRegistry.getInstance().getTargets(className);
+        if (modifyClasses == null) return null;
+
+        defineDependencies(loader, modifyClasses, protectionDomain);
+
+        try {
+            String key = WeaveKey.of(bytecode, modifyClasses);
+            byte[] woven = memoryCache.computeIfAbsent(key, TypeHierarchy.forLoader(loader), () -> weave(key, bytecode, modifyClasses, loader)).getBytecode();
+            return woven == ClassWeaver.UNCHANGED ? null : woven.clone();
+        } catch (Throwable t) {
+            t.printStackTrace(InternalBootManager.getInstance().getPrintStream());
+            return null;
         }
+    }
 
-        injectMethods.sort(Comparator.comparingInt(Injector::getPriority));
-        for (Injector injectMethod : injectMethods) bytecode = injectMethod.inject(bytecode);
+    private static WovenClass weave(String key, byte[] bytecode, ModifyClass[] modifyClasses, ClassLoader loader) {
+        DiskWeaveCache cache = weaveCache;
+        if (cache != null) {
+            WovenClass cached = cache.get(key);
+            if (cached != null && cached.matches(TypeHierarchy.forLoader(loader))) return cached;
+        }
 
-        return bytecode;
+        WovenClass woven = ClassWeaver.weave(bytecode, modifyClasses, loader);
+        if (cache != null && !woven.isDegraded()) cache.put(key, woven);
+        return woven;
     }
 }
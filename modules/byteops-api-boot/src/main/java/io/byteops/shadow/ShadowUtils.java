@@ -41,6 +41,8 @@ public abstract class ShadowUtils {
         registerClose();
 
         ShadowCacheRegistry.instance.loadCache();
+        ShadowModifyTransformer.initWeaveCache();
+        ShadowModifyTransformer.preWeave();
         isLocked = true;
     }
 
@@ -0,0 +1,19 @@
+package io.byteops.modify;
+
+import io.byteops.modify.util.MethodReference;
+import io.byteops.modify.util.Selector;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AllocationProbe {
+    MethodReference[] value();
+
+    Selector target() default @Selector;
+
+    int sample() default 0;
+}
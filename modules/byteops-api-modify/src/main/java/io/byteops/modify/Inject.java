@@ -1,7 +1,10 @@
 package io.byteops.modify;
 
 import io.byteops.modify.util.At;
+import io.byteops.modify.util.Backpressure;
+import io.byteops.modify.util.ErrorPolicy;
 import io.byteops.modify.util.MethodReference;
+import io.byteops.modify.util.Selector;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -17,5 +20,21 @@ public @interface Inject {
 
     int priority() default 0;
 
+    Selector target() default @Selector;
+
+    int[] opcodes() default {};
+
     int index() default 0;
+
+    boolean inline() default false;
+
+    int sample() default 1;
+
+    boolean async() default false;
+
+    Backpressure backpressure() default Backpressure.DROP;
+
+    ErrorPolicy onError() default ErrorPolicy.WRAP;
+
+    int maxFailures() default 10;
 }
@@ -0,0 +1,14 @@
+package io.byteops.modify;
+
+import io.byteops.modify.util.MethodReference;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Probe {
+    MethodReference[] value();
+}
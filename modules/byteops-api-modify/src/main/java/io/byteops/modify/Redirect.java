@@ -0,0 +1,22 @@
+package io.byteops.modify;
+
+import io.byteops.modify.util.At;
+import io.byteops.modify.util.MethodReference;
+import io.byteops.modify.util.Selector;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Redirect {
+    MethodReference method();
+
+    At at();
+
+    Selector target();
+
+    int index() default 0;
+}
@@ -0,0 +1,30 @@
+package io.byteops.modify.runtime;
+
+public final class AllocationSample {
+    private final String thread;
+    private final int depth;
+    private final long timestamp;
+
+    AllocationSample(String thread, int depth, long timestamp) {
+        this.thread = thread;
+        this.depth = depth;
+        this.timestamp = timestamp;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return thread + " depth=" + depth;
+    }
+}
@@ -0,0 +1,119 @@
+package io.byteops.modify.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public final class AllocationSite {
+    private static final int PAD_SHIFT = 3;
+    private static final int STRIPES = stripes();
+    private static final int SAMPLES = 16;
+    private static final int MAX_DEPTH = 256;
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final String owner;
+    private final String method;
+    private final int index;
+    private final int line;
+    private final String type;
+    private final int rate;
+
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES << PAD_SHIFT);
+    private final int[] ticks;
+    private final AtomicInteger sampled = new AtomicInteger();
+    private final AtomicReferenceArray<AllocationSample> samples;
+
+    AllocationSite(String owner, String method, int index, int line, String type, int rate) {
+        this.owner = owner;
+        this.method = method;
+        this.index = index;
+        this.line = line;
+        this.type = type;
+        this.rate = rate;
+        this.ticks = rate > 0 ? new int[STRIPES << PAD_SHIFT << 1] : null;
+        this.samples = rate > 0 ? new AtomicReferenceArray<>(SAMPLES) : null;
+    }
+
+    public void record() {
+        int hash = Thread.currentThread().hashCode() * 0x9E3779B9;
+        int stripe = ((hash ^ hash >>> 16) & (STRIPES - 1)) << PAD_SHIFT;
+
+        counts.getAndIncrement(stripe);
+        if (ticks == null) return;
+
+        int tick = ticks[stripe << 1] + 1;
+        if (tick < rate) {
+            ticks[stripe << 1] = tick;
+            return;
+        }
+        ticks[stripe << 1] = 0;
+        sample();
+    }
+
+    private void sample() {
+        int depth = WALKER.walk(frames -> (int) frames.limit(MAX_DEPTH + 2).count()) - 2;
+        samples.set(sampled.getAndIncrement() & (SAMPLES - 1), new AllocationSample(Thread.currentThread().getName(), depth, System.currentTimeMillis()));
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) count += counts.get(stripe << PAD_SHIFT);
+        return count;
+    }
+
+    public int getSampleCount() {
+        return samples == null ? 0 : sampled.get();
+    }
+
+    public List<AllocationSample> getSamples() {
+        List<AllocationSample> result = new ArrayList<>();
+        if (samples == null) return result;
+
+        int last = sampled.get();
+        for (int i = Math.max(0, last - SAMPLES); i < last; i++) {
+            AllocationSample sample = samples.get(i & (SAMPLES - 1));
+            if (sample != null) result.add(sample);
+        }
+        return result;
+    }
+
+    public void reset() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) counts.set(stripe << PAD_SHIFT, 0);
+        if (samples == null) return;
+
+        sampled.set(0);
+        for (int i = 0; i < SAMPLES; i++) samples.set(i, null);
+    }
+
+    @Override
+    public String toString() {
+        return owner + "." + method + " #" + index + (line > 0 ? " (line " + line + ")" : "") + " " + type + " count=" + getCount();
+    }
+
+    private static int stripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return Math.min(16, Integer.highestOneBit(Math.max(1, processors * 2 - 1)) << 1);
+    }
+}
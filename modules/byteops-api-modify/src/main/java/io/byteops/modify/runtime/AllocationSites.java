@@ -0,0 +1,59 @@
+package io.byteops.modify.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class AllocationSites {
+    private static final MethodHandle RECORD = findRecord();
+    private static final ConcurrentMap<String, AllocationSite> SITES = new ConcurrentHashMap<>();
+
+    @ApiStatus.Internal
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, String owner, String method, int index, int line, String allocated, int rate) {
+        return new ConstantCallSite(RECORD.bindTo(of(owner, method, index, line, allocated, rate)));
+    }
+
+    @ApiStatus.Internal
+    public static void record(String owner, String method, int index, int line, String allocated, int rate) {
+        of(owner, method, index, line, allocated, rate).record();
+    }
+
+    public static List<AllocationSite> getTop(int limit) {
+        List<AllocationSite> sites = getSites();
+        sites.sort(Comparator.comparingLong(AllocationSite::getCount).reversed());
+        return sites.size() > limit ? new ArrayList<>(sites.subList(0, limit)) : sites;
+    }
+
+    public static List<AllocationSite> getSites() {
+        return new ArrayList<>(SITES.values());
+    }
+
+    public static void reset() {
+        for (AllocationSite site : SITES.values()) site.reset();
+    }
+
+    private static AllocationSite of(String owner, String method, int index, int line, String allocated, int rate) {
+        String key = owner + "." + method + "#" + index;
+        AllocationSite site = SITES.get(key);
+        return site != null ? site : SITES.computeIfAbsent(key, k -> new AllocationSite(owner, method, index, line, allocated, rate));
+    }
+
+    private static MethodHandle findRecord() {
+        try {
+            return MethodHandles.lookup().findVirtual(AllocationSite.class, "record", MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private AllocationSites() {}
+}
@@ -0,0 +1,179 @@
+package io.byteops.modify.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+@ApiStatus.Internal
+public final class AsyncInjectors {
+    private static final int BATCH = 64;
+    private static final MethodHandle LONG_AT;
+    private static final MethodHandle REF_AT;
+    private static final MethodHandle ADD;
+    private static final MethodHandle INT_BITS_TO_FLOAT;
+    private static final MethodHandle LONG_BITS_TO_DOUBLE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            LONG_AT = lookup.findVirtual(AsyncRing.class, "longAt", MethodType.methodType(long.class, int.class));
+            REF_AT = lookup.findVirtual(AsyncRing.class, "refAt", MethodType.methodType(Object.class, int.class));
+            ADD = lookup.findStatic(AsyncInjectors.class, "add", MethodType.methodType(int.class, int.class, int.class));
+            INT_BITS_TO_FLOAT = lookup.findStatic(Float.class, "intBitsToFloat", MethodType.methodType(float.class, int.class));
+            LONG_BITS_TO_DOUBLE = lookup.findStatic(Double.class, "longBitsToDouble", MethodType.methodType(double.class, long.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final List<WeakReference<AsyncRing>> RINGS = new CopyOnWriteArrayList<>();
+    private static final ClassValue<ConcurrentMap<String, WeakReference<AsyncRing>>> CLASS_RINGS = new ClassValue<ConcurrentMap<String, WeakReference<AsyncRing>>>() {
+        @Override
+        protected ConcurrentMap<String, WeakReference<AsyncRing>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final List<Thread> CONSUMERS = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger SLEEPING = new AtomicInteger();
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private static volatile int capacity = 1024;
+    private static volatile int consumers = 1;
+
+    public static void configure(int ringCapacity, int consumerThreads) {
+        capacity = Integer.highestOneBit(Math.max(2, ringCapacity - 1)) << 1;
+        consumers = Math.max(1, consumerThreads);
+    }
+
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, MethodHandle injector, String injectorName, int block, int maxFailures) {
+        ConcurrentMap<String, WeakReference<AsyncRing>> rings = CLASS_RINGS.get(lookup.lookupClass());
+        synchronized (rings) {
+            WeakReference<AsyncRing> reference = rings.get(name);
+            AsyncRing ring = reference == null ? null : reference.get();
+            if (ring == null) {
+                ring = register(new AsyncRing(injectorName, adapt(injector), block != 0, maxFailures, capacity, injector.type().parameterCount()));
+                rings.put(name, new WeakReference<>(ring));
+            }
+            return new ConstantCallSite(MethodHandles.constant(AsyncRing.class, ring));
+        }
+    }
+
+    public static long getDropped(String injector) {
+        long dropped = 0;
+        for (WeakReference<AsyncRing> reference : RINGS) {
+            AsyncRing ring = reference.get();
+            if (ring != null && (ring.getInjector().equals(injector) || ring.getInjector().startsWith(injector + "("))) dropped += ring.getDropped();
+        }
+        return dropped;
+    }
+
+    static boolean isConsumer(Thread thread) {
+        return thread instanceof Consumer;
+    }
+
+    static void signal() {
+        if (SLEEPING.get() == 0) return;
+        for (Thread consumer : CONSUMERS) LockSupport.unpark(consumer);
+    }
+
+    private static AsyncRing register(AsyncRing ring) {
+        RINGS.removeIf(reference -> reference.get() == null);
+        RINGS.add(new WeakReference<>(ring));
+        if (started.compareAndSet(false, true)) {
+            for (int i = 0; i < consumers; i++) {
+                Thread thread = new Consumer("byteops-async-" + i);
+                CONSUMERS.add(thread);
+                thread.start();
+            }
+        }
+        return ring;
+    }
+
+    private static MethodHandle adapt(MethodHandle injector) {
+        MethodType type = injector.type();
+        MethodHandle handler = injector.asType(type.changeReturnType(void.class));
+
+        int count = type.parameterCount();
+        for (int i = count - 1; i >= 0; i--) handler = MethodHandles.collectArguments(handler, i, getter(type.parameterType(i), i));
+
+        int[] order = new int[count * 2];
+        for (int i = 0; i < count; i++) order[i * 2 + 1] = 1;
+        return MethodHandles.permuteArguments(handler, MethodType.methodType(void.class, AsyncRing.class, int.class), order);
+    }
+
+    private static MethodHandle getter(Class<?> type, int field) {
+        MethodHandle getter;
+        if (!type.isPrimitive()) getter = REF_AT.asType(MethodType.methodType(type, AsyncRing.class, int.class));
+        else if (type == long.class) getter = LONG_AT;
+        else if (type == double.class) getter = MethodHandles.filterReturnValue(LONG_AT, LONG_BITS_TO_DOUBLE);
+        else if (type == float.class) getter = MethodHandles.filterReturnValue(MethodHandles.explicitCastArguments(LONG_AT, MethodType.methodType(int.class, AsyncRing.class, int.class)), INT_BITS_TO_FLOAT);
+        else getter = MethodHandles.explicitCastArguments(LONG_AT, MethodType.methodType(type, AsyncRing.class, int.class));
+
+        return MethodHandles.filterArguments(getter, 1, MethodHandles.insertArguments(ADD, 1, field));
+    }
+
+    private static int add(int base, int field) {
+        return base + field;
+    }
+
+    private static boolean drain() {
+        boolean worked = false;
+        for (WeakReference<AsyncRing> reference : RINGS) {
+            AsyncRing ring = reference.get();
+            if (ring != null) for (int i = 0; i < BATCH && ring.consume(); i++) worked = true;
+        }
+        return worked;
+    }
+
+    private static boolean hasWork() {
+        for (WeakReference<AsyncRing> reference : RINGS) {
+            AsyncRing ring = reference.get();
+            if (ring != null && ring.hasWork()) return true;
+        }
+        return false;
+    }
+
+    private static void consume() {
+        int idle = 0;
+        while (true) {
+            if (drain()) {
+                idle = 0;
+                continue;
+            }
+
+            if (++idle < 100) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            SLEEPING.incrementAndGet();
+            try {
+                if (!hasWork()) LockSupport.park(AsyncInjectors.class);
+            } finally {
+                SLEEPING.decrementAndGet();
+            }
+            idle = 0;
+        }
+    }
+
+    private static final class Consumer extends Thread {
+        Consumer(String name) {
+            super(AsyncInjectors::consume, name);
+            setDaemon(true);
+        }
+    }
+
+    private AsyncInjectors() {}
+}
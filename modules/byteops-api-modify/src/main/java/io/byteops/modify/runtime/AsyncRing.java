@@ -0,0 +1,116 @@
+package io.byteops.modify.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+@ApiStatus.Internal
+public final class AsyncRing {
+    private final String injector;
+    private final MethodHandle handler;
+    private final boolean block;
+    private final int maxFailures;
+    private final int mask;
+    private final int width;
+
+    private final AtomicLongArray sequences;
+    private final long[] longs;
+    private final Object[] refs;
+
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    AsyncRing(String injector, MethodHandle handler, boolean block, int maxFailures, int capacity, int width) {
+        this.injector = injector;
+        this.handler = handler;
+        this.block = block;
+        this.maxFailures = maxFailures;
+        this.mask = capacity - 1;
+        this.width = Math.max(1, width);
+        this.sequences = new AtomicLongArray(capacity);
+        this.longs = new long[capacity * this.width];
+        this.refs = new Object[capacity * this.width];
+        for (int i = 0; i < capacity; i++) sequences.set(i, i);
+    }
+
+    public long claim() {
+        int spins = 0;
+        long position = enqueuePosition.get();
+        while (true) {
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0 && enqueuePosition.compareAndSet(position, position + 1)) return position;
+            if (difference < 0) {
+                if (!block || AsyncInjectors.isConsumer(Thread.currentThread())) {
+                    dropped.increment();
+                    return -1;
+                }
+                if (++spins < 100) Thread.onSpinWait();
+                else LockSupport.parkNanos(10_000);
+            }
+            position = enqueuePosition.get();
+        }
+    }
+
+    public void putLong(long position, int field, long value) {
+        longs[((int) position & mask) * width + field] = value;
+    }
+
+    public void putRef(long position, int field, Object value) {
+        refs[((int) position & mask) * width + field] = value;
+    }
+
+    public void publish(long position) {
+        sequences.set((int) position & mask, position + 1);
+        AsyncInjectors.signal();
+    }
+
+    boolean consume() {
+        long position = dequeuePosition.get();
+        while (true) {
+            long difference = sequences.get((int) position & mask) - (position + 1);
+            if (difference == 0 && dequeuePosition.compareAndSet(position, position + 1)) break;
+            if (difference < 0) return false;
+            position = dequeuePosition.get();
+        }
+
+        int index = (int) position & mask;
+        int base = index * width;
+        try {
+            handler.invokeExact(this, base);
+        } catch (Throwable throwable) {
+            if (maxFailures > 0) InjectorFailures.disable(throwable, injector, maxFailures);
+            else InjectorFailures.swallow(throwable, injector);
+        } finally {
+            Arrays.fill(refs, base, base + width, null);
+            sequences.lazySet(index, position + mask + 1);
+        }
+        return true;
+    }
+
+    boolean hasWork() {
+        long position = dequeuePosition.get();
+        return sequences.get((int) position & mask) == position + 1;
+    }
+
+    long longAt(int index) {
+        return longs[index];
+    }
+
+    Object refAt(int index) {
+        return refs[index];
+    }
+
+    String getInjector() {
+        return injector;
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,67 @@
+package io.byteops.modify.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@ApiStatus.Internal
+public final class InjectorFailures {
+    private static final long LOG_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final ConcurrentMap<String, InjectorFailures> FAILURES = new ConcurrentHashMap<>();
+    private static volatile PrintStream stream = System.err;
+
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong nextLog = new AtomicLong(System.nanoTime());
+
+    public static void setPrintStream(PrintStream printStream) {
+        if (printStream != null) stream = printStream;
+    }
+
+    public static void swallow(Throwable throwable, String injector) {
+        of(injector).record(throwable, injector);
+    }
+
+    public static void disable(Throwable throwable, String injector, int maxFailures) {
+        long count = of(injector).record(throwable, injector);
+        if (count >= maxFailures && InjectorSwitch.disable(injector)) stream.println("[Inject] " + injector + " disabled after " + count + " failures");
+    }
+
+    public static long getFailures(String injector) {
+        InjectorFailures injectorFailures = FAILURES.get(injector);
+        if (injectorFailures != null) return injectorFailures.failures.get();
+
+        long failures = 0;
+        for (Map.Entry<String, InjectorFailures> entry : FAILURES.entrySet()) if (entry.getKey().startsWith(injector + "(")) failures += entry.getValue().failures.get();
+        return failures;
+    }
+
+    static void reset(String injector) {
+        InjectorFailures injectorFailures = FAILURES.get(injector);
+        if (injectorFailures != null) injectorFailures.failures.set(0);
+    }
+
+    private static InjectorFailures of(String injector) {
+        InjectorFailures injectorFailures = FAILURES.get(injector);
+        return injectorFailures != null ? injectorFailures : FAILURES.computeIfAbsent(injector, key -> new InjectorFailures());
+    }
+
+    private long record(Throwable throwable, String injector) {
+        long count = failures.incrementAndGet();
+
+        long now = System.nanoTime();
+        long next = nextLog.get();
+        if (now - next >= 0 && nextLog.compareAndSet(next, now + LOG_INTERVAL)) {
+            PrintStream printStream = stream;
+            printStream.println("[Inject] " + injector + " failed (" + count + " total)");
+            throwable.printStackTrace(printStream);
+        }
+        return count;
+    }
+
+    private InjectorFailures() {}
+}
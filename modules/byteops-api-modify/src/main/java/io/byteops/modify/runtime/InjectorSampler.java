@@ -0,0 +1,65 @@
+package io.byteops.modify.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@ApiStatus.Internal
+public final class InjectorSampler {
+    private static final int PAD_SHIFT = 5;
+    private static final int STRIPES = stripes();
+    private static final MethodHandle NEXT = findNext();
+    private static final ConcurrentMap<String, InjectorSampler> SAMPLERS = new ConcurrentHashMap<>();
+
+    private final int rate;
+    private final int[] counters = new int[STRIPES << PAD_SHIFT];
+
+    private InjectorSampler(int rate) {
+        this.rate = rate;
+    }
+
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, String injector, int rate) {
+        return new ConstantCallSite(NEXT.bindTo(of(injector, rate)));
+    }
+
+    public static boolean sample(String injector, int rate) {
+        return of(injector, rate).next();
+    }
+
+    private static InjectorSampler of(String injector, int rate) {
+        InjectorSampler sampler = SAMPLERS.get(injector + "#" + rate);
+        return sampler != null ? sampler : SAMPLERS.computeIfAbsent(injector + "#" + rate, key -> new InjectorSampler(rate));
+    }
+
+    public boolean next() {
+        int hash = Thread.currentThread().hashCode() * 0x9E3779B9;
+        int index = ((hash ^ hash >>> 16) & (STRIPES - 1)) << PAD_SHIFT;
+
+        int count = counters[index] + 1;
+        if (count >= rate) {
+            counters[index] = 0;
+            return true;
+        }
+        counters[index] = count;
+        return false;
+    }
+
+    private static int stripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return Math.min(64, Integer.highestOneBit(Math.max(1, processors * 2 - 1)) << 1);
+    }
+
+    private static MethodHandle findNext() {
+        try {
+            return MethodHandles.lookup().findVirtual(InjectorSampler.class, "next", MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.byteops.modify.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class InjectorSwitch {
+    private static final MethodHandle ENABLED = MethodHandles.constant(boolean.class, true);
+    private static final MethodHandle DISABLED = MethodHandles.constant(boolean.class, false);
+    private static final ConcurrentMap<String, InjectorSwitch> SWITCHES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Boolean> NAMED = new ConcurrentHashMap<>();
+
+    private final MutableCallSite site = new MutableCallSite(ENABLED);
+    private volatile boolean enabled = true;
+
+    @ApiStatus.Internal
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, String injector) {
+        return of(injector).site;
+    }
+
+    @ApiStatus.Internal
+    public static boolean isEnabled(String injector) {
+        InjectorSwitch injectorSwitch = SWITCHES.get(injector);
+        return injectorSwitch == null ? !Boolean.FALSE.equals(NAMED.get(methodOf(injector))) : injectorSwitch.enabled;
+    }
+
+    public static boolean isEnabled(Class<?> modifyClass, String method) {
+        String name = nameOf(modifyClass, method);
+        if (Boolean.FALSE.equals(NAMED.get(name))) return false;
+        for (Map.Entry<String, InjectorSwitch> entry : SWITCHES.entrySet()) if (methodOf(entry.getKey()).equals(name) && !entry.getValue().enabled) return false;
+        return true;
+    }
+
+    public static boolean disable(Class<?> modifyClass, String method) {
+        return setAll(nameOf(modifyClass, method), false);
+    }
+
+    public static boolean enable(Class<?> modifyClass, String method) {
+        return setAll(nameOf(modifyClass, method), true);
+    }
+
+    @ApiStatus.Internal
+    public static boolean disable(String injector) {
+        return of(injector).set(false);
+    }
+
+    @ApiStatus.Internal
+    public static boolean enable(String injector) {
+        InjectorFailures.reset(injector);
+        return of(injector).set(true);
+    }
+
+    private static boolean setAll(String name, boolean value) {
+        Boolean previous = NAMED.put(name, value);
+        boolean changed = (previous == null || previous) != value;
+        for (String injector : SWITCHES.keySet()) {
+            if (!methodOf(injector).equals(name)) continue;
+            changed |= value ? enable(injector) : disable(injector);
+        }
+        return changed;
+    }
+
+    private static String nameOf(Class<?> modifyClass, String method) {
+        return modifyClass.getName() + "." + method;
+    }
+
+    private static String methodOf(String injector) {
+        int descriptor = injector.indexOf('(');
+        return descriptor < 0 ? injector : injector.substring(0, descriptor);
+    }
+
+    private static InjectorSwitch of(String injector) {
+        InjectorSwitch injectorSwitch = SWITCHES.get(injector);
+        if (injectorSwitch != null) return injectorSwitch;
+
+        return SWITCHES.computeIfAbsent(injector, key -> {
+            InjectorSwitch created = new InjectorSwitch();
+            if (Boolean.FALSE.equals(NAMED.get(methodOf(key)))) created.set(false);
+            return created;
+        });
+    }
+
+    private synchronized boolean set(boolean value) {
+        if (enabled == value) return false;
+
+        enabled = value;
+        site.setTarget(value ? ENABLED : DISABLED);
+        MutableCallSite.syncAll(new MutableCallSite[]{site});
+        return true;
+    }
+
+    private InjectorSwitch() {}
+}
@@ -0,0 +1,105 @@
+package io.byteops.modify.runtime;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 30;
+    private static final int BUCKETS = (MAX_SHIFT + 2) << SUB_BITS;
+    private static final int PAD_SHIFT = 3;
+    private static final int STRIPES = stripes();
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+    private final AtomicLongArray sums = new AtomicLongArray(STRIPES << PAD_SHIFT);
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos) {
+        int hash = Thread.currentThread().hashCode() * 0x9E3779B9;
+        int stripe = (hash ^ hash >>> 16) & (STRIPES - 1);
+
+        counts.getAndIncrement(stripe * BUCKETS + indexOf(nanos));
+        sums.getAndAdd(stripe << PAD_SHIFT, Math.max(0, nanos));
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT << 1) return value < 0 ? 0 : (int) value;
+
+        int shift = Math.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(value) - SUB_BITS);
+        long sub = value >>> shift;
+        return (shift << SUB_BITS) + (int) Math.min(sub, (SUB_COUNT << 1) - 1);
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < SUB_COUNT << 1) return index;
+
+        int shift = (index >> SUB_BITS) - 1;
+        long sub = index - ((long) shift << SUB_BITS);
+        return ((sub + 1) << shift) - 1;
+    }
+
+    private long[] merge() {
+        long[] merged = new long[BUCKETS];
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            for (int i = 0; i < BUCKETS; i++) merged[i] += counts.get(stripe * BUCKETS + i);
+        }
+        return merged;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) count += counts.get(i);
+        return count;
+    }
+
+    public double getMean() {
+        long sum = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) sum += sums.get(stripe << PAD_SHIFT);
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+
+        long[] merged = merge();
+        long count = 0;
+        for (long bucket : merged) count += bucket;
+        if (count == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < merged.length; i++) {
+            seen += merged[i];
+            if (seen >= rank) return highestValueAt(i);
+        }
+        return highestValueAt(merged.length - 1);
+    }
+
+    public long getMax() {
+        return getPercentile(100);
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        for (int i = 0; i < sums.length(); i++) sums.set(i, 0);
+    }
+
+    @Override
+    public String toString() {
+        return name + " count=" + getCount() + " mean=" + (long) getMean() + "ns p50=" + getPercentile(50) + "ns p90=" + getPercentile(90) + "ns p99=" + getPercentile(99) + "ns p99.9=" + getPercentile(99.9) + "ns max=" + getMax() + "ns";
+    }
+
+    private static int stripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return Math.min(16, Integer.highestOneBit(Math.max(1, processors * 2 - 1)) << 1);
+    }
+}
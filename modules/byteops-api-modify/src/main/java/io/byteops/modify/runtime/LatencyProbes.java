@@ -0,0 +1,60 @@
+package io.byteops.modify.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class LatencyProbes {
+    private static final MethodHandle RECORD = findRecord();
+    private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    @ApiStatus.Internal
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, String probe) {
+        return new ConstantCallSite(RECORD.bindTo(of(probe)));
+    }
+
+    @ApiStatus.Internal
+    public static void record(long nanos, String probe) {
+        of(probe).record(nanos);
+    }
+
+    public static LatencyHistogram get(String probe) {
+        return HISTOGRAMS.get(probe);
+    }
+
+    public static LatencyHistogram get(Class<?> owner, String method, Class<?>... parameters) {
+        String descriptor = MethodType.methodType(void.class, parameters).toMethodDescriptorString();
+        String prefix = owner.getName() + "." + method + descriptor.substring(0, descriptor.length() - 1);
+
+        for (Map.Entry<String, LatencyHistogram> entry : HISTOGRAMS.entrySet()) if (entry.getKey().startsWith(prefix)) return entry.getValue();
+        return null;
+    }
+
+    public static Map<String, LatencyHistogram> getProbes() {
+        return Collections.unmodifiableMap(new TreeMap<>(HISTOGRAMS));
+    }
+
+    private static LatencyHistogram of(String probe) {
+        LatencyHistogram histogram = HISTOGRAMS.get(probe);
+        return histogram != null ? histogram : HISTOGRAMS.computeIfAbsent(probe, LatencyHistogram::new);
+    }
+
+    private static MethodHandle findRecord() {
+        try {
+            return MethodHandles.lookup().findVirtual(LatencyHistogram.class, "record", MethodType.methodType(void.class, long.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private LatencyProbes() {}
+}
@@ -0,0 +1,6 @@
+package io.byteops.modify.util;
+
+public enum Backpressure {
+    DROP,
+    BLOCK,
+}
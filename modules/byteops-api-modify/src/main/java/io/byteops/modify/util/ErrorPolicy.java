@@ -0,0 +1,8 @@
+package io.byteops.modify.util;
+
+public enum ErrorPolicy {
+    WRAP,
+    RETHROW,
+    SWALLOW,
+    DISABLE,
+}
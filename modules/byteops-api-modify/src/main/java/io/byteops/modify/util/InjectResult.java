@@ -2,41 +2,145 @@ package io.byteops.modify.util;
 
 import org.jetbrains.annotations.ApiStatus;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 public final class InjectResult<T> {
-    private final T value;
-    private final Throwable throwable;
+    private static final byte NONE = 0;
+    private static final byte OBJECT = 'L';
+    private static final byte INT = 'I';
+    private static final byte LONG = 'J';
+    private static final byte FLOAT = 'F';
+    private static final byte DOUBLE = 'D';
+    private static final byte BOOLEAN = 'Z';
+    private static final byte CHAR = 'C';
+    private static final byte SHORT = 'S';
+    private static final byte BYTE = 'B';
+
+    @ApiStatus.Internal
+    public static final InjectResult<Void> PASS = new InjectResult<>(false, NONE, 0, null, null, null, null, null);
+
+    private static final InjectResult<Void> STOP = new InjectResult<>(true, NONE, 0, null, null, null, null, null);
+
     private final boolean stop;
-    private final List<LocalData> localMap = new ArrayList<>();
+    private final byte kind;
+    private final long bits;
+    private final Object value;
+    private final Throwable throwable;
 
-    private InjectResult(T value, Throwable throwable, boolean stop) {
+    private byte[] localKinds;
+    private long[] localBits;
+    private Object[] localValues;
+
+    private InjectResult(boolean stop, byte kind, long bits, Object value, Throwable throwable, byte[] localKinds, long[] localBits, Object[] localValues) {
+        this.stop = stop;
+        this.kind = kind;
+        this.bits = bits;
         this.value = value;
         this.throwable = throwable;
-        this.stop = stop;
+        this.localKinds = localKinds;
+        this.localBits = localBits;
+        this.localValues = localValues;
+    }
+
+    private static <T> InjectResult<T> stop(byte kind, long bits) {
+        return new InjectResult<>(true, kind, bits, null, null, null, null, null);
     }
 
-    public static InjectResult<Void> pass() {
-        return new InjectResult<>(null, null, false);
+    @SuppressWarnings("unchecked")
+    public static <T> InjectResult<T> pass() {
+        return (InjectResult<T>) PASS;
     }
 
-    public static InjectResult<Void> stop() {
-        return new InjectResult<>(null, null, true);
+    @SuppressWarnings("unchecked")
+    public static <T> InjectResult<T> stop() {
+        return (InjectResult<T>) STOP;
     }
 
     public static <T> InjectResult<T> stop(T value) {
-        return new InjectResult<>(value, null, true);
+        return new InjectResult<>(true, OBJECT, 0, value, null, null, null, null);
     }
 
-    public static InjectResult<Void> error(Throwable throwable) {
-        return new InjectResult<>(null, throwable, true);
+    public static <T> InjectResult<T> stop(int value) {
+        return stop(INT, value);
+    }
+
+    public static <T> InjectResult<T> stop(long value) {
+        return stop(LONG, value);
+    }
+
+    public static <T> InjectResult<T> stop(float value) {
+        return stop(FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    public static <T> InjectResult<T> stop(double value) {
+        return stop(DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public static <T> InjectResult<T> stop(boolean value) {
+        return stop(BOOLEAN, value ? 1 : 0);
+    }
+
+    public static <T> InjectResult<T> stop(char value) {
+        return stop(CHAR, value);
+    }
+
+    public static <T> InjectResult<T> stop(short value) {
+        return stop(SHORT, value);
+    }
+
+    public static <T> InjectResult<T> stop(byte value) {
+        return stop(BYTE, value);
+    }
+
+    public static <T> InjectResult<T> error(Throwable throwable) {
+        return new InjectResult<>(true, NONE, 0, null, throwable, null, null, null);
     }
 
     public InjectResult<T> setLocals(LocalData... locals) {
-        localMap.addAll(Arrays.asList(locals));
-        return this;
+        InjectResult<T> result = this;
+        for (LocalData local : locals) result = result.withLocal(local.getIndex(), OBJECT, 0, local.getValue());
+        return result;
+    }
+
+    public InjectResult<T> setLocal(int index, Object value) {
+        return withLocal(index, OBJECT, 0, value);
+    }
+
+    public InjectResult<T> setLocal(int index, int value) {
+        return withLocal(index, INT, value, null);
+    }
+
+    public InjectResult<T> setLocal(int index, long value) {
+        return withLocal(index, LONG, value, null);
+    }
+
+    public InjectResult<T> setLocal(int index, float value) {
+        return withLocal(index, FLOAT, Float.floatToRawIntBits(value), null);
+    }
+
+    public InjectResult<T> setLocal(int index, double value) {
+        return withLocal(index, DOUBLE, Double.doubleToRawLongBits(value), null);
+    }
+
+    public InjectResult<T> setLocal(int index, boolean value) {
+        return withLocal(index, BOOLEAN, value ? 1 : 0, null);
+    }
+
+    private InjectResult<T> withLocal(int index, byte localKind, long localBit, Object localValue) {
+        if (index < 0) throw new IllegalArgumentException("local index must be non-negative: " + index);
+
+        InjectResult<T> result = this == PASS || this == STOP ? new InjectResult<>(stop, kind, bits, value, throwable, null, null, null) : this;
+        int length = Math.max(index + 1, result.localKinds == null ? 0 : result.localKinds.length);
+        if (result.localKinds == null || result.localKinds.length < length) {
+            result.localKinds = result.localKinds == null ? new byte[length] : Arrays.copyOf(result.localKinds, length);
+            result.localBits = result.localBits == null ? new long[length] : Arrays.copyOf(result.localBits, length);
+            result.localValues = result.localValues == null ? new Object[length] : Arrays.copyOf(result.localValues, length);
+        }
+
+        result.localKinds[index] = localKind;
+        result.localBits[index] = localBit;
+        result.localValues[index] = localValue;
+        return result;
     }
 
     @ApiStatus.Internal
@@ -45,20 +149,147 @@ public final class InjectResult<T> {
     }
 
     @ApiStatus.Internal
+    @SuppressWarnings("unchecked")
     public T getValue() throws Throwable {
-        if(throwable != null) throw throwable;
-        return value;
+        if (throwable != null) throw throwable;
+        return (T) toObject(kind, bits, value);
+    }
+
+    @ApiStatus.Internal
+    public int getInt() throws Throwable {
+        if (throwable != null) throw throwable;
+        return toInt(kind, bits, value);
+    }
+
+    @ApiStatus.Internal
+    public long getLong() throws Throwable {
+        if (throwable != null) throw throwable;
+        return toLong(kind, bits, value);
+    }
+
+    @ApiStatus.Internal
+    public float getFloat() throws Throwable {
+        if (throwable != null) throw throwable;
+        return toFloat(kind, bits, value);
+    }
+
+    @ApiStatus.Internal
+    public double getDouble() throws Throwable {
+        if (throwable != null) throw throwable;
+        return toDouble(kind, bits, value);
+    }
+
+    @ApiStatus.Internal
+    public InjectResult<T> checkError() throws Throwable {
+        if (throwable != null) throw throwable;
+        return this;
+    }
+
+    @ApiStatus.Internal
+    public boolean hasLocals() {
+        return localKinds != null;
     }
 
     @ApiStatus.Internal
     public boolean hasLocalUpdate(int index) {
-        for (LocalData d : localMap) if (d.getIndex() == index) return true;
-        return false;
+        return localKinds != null && index < localKinds.length && localKinds[index] != NONE;
     }
 
     @ApiStatus.Internal
     public Object getLocalValue(int index) {
-        for (LocalData d : localMap) if (d.getIndex() == index) return d.getValue();
-        return null;
+        return toObject(localKinds[index], localBits[index], localValues[index]);
+    }
+
+    @ApiStatus.Internal
+    public int getIntLocal(int index) {
+        return toInt(localKinds[index], localBits[index], localValues[index]);
+    }
+
+    @ApiStatus.Internal
+    public long getLongLocal(int index) {
+        return toLong(localKinds[index], localBits[index], localValues[index]);
+    }
+
+    @ApiStatus.Internal
+    public float getFloatLocal(int index) {
+        return toFloat(localKinds[index], localBits[index], localValues[index]);
+    }
+
+    @ApiStatus.Internal
+    public double getDoubleLocal(int index) {
+        return toDouble(localKinds[index], localBits[index], localValues[index]);
+    }
+
+    private static Object toObject(byte kind, long bits, Object value) {
+        switch (kind) {
+            case INT: return (int) bits;
+            case BOOLEAN: return bits != 0;
+            case CHAR: return (char) bits;
+            case SHORT: return (short) bits;
+            case BYTE: return (byte) bits;
+            case LONG: return bits;
+            case FLOAT: return Float.intBitsToFloat((int) bits);
+            case DOUBLE: return Double.longBitsToDouble(bits);
+            default: return value;
+        }
+    }
+
+    private static int toInt(byte kind, long bits, Object value) {
+        switch (kind) {
+            case INT:
+            case BOOLEAN:
+            case CHAR:
+            case SHORT:
+            case BYTE:
+            case LONG: return (int) bits;
+            case FLOAT: return (int) Float.intBitsToFloat((int) bits);
+            case DOUBLE: return (int) Double.longBitsToDouble(bits);
+            default:
+                if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+                if (value instanceof Character) return (Character) value;
+                return ((Number) value).intValue();
+        }
+    }
+
+    private static long toLong(byte kind, long bits, Object value) {
+        switch (kind) {
+            case INT:
+            case BOOLEAN:
+            case CHAR:
+            case SHORT:
+            case BYTE:
+            case LONG: return bits;
+            case FLOAT: return (long) Float.intBitsToFloat((int) bits);
+            case DOUBLE: return (long) Double.longBitsToDouble(bits);
+            default: return ((Number) value).longValue();
+        }
+    }
+
+    private static float toFloat(byte kind, long bits, Object value) {
+        switch (kind) {
+            case INT:
+            case BOOLEAN:
+            case CHAR:
+            case SHORT:
+            case BYTE:
+            case LONG: return (float) bits;
+            case FLOAT: return Float.intBitsToFloat((int) bits);
+            case DOUBLE: return (float) Double.longBitsToDouble(bits);
+            default: return ((Number) value).floatValue();
+        }
+    }
+
+    private static double toDouble(byte kind, long bits, Object value) {
+        switch (kind) {
+            case INT:
+            case BOOLEAN:
+            case CHAR:
+            case SHORT:
+            case BYTE:
+            case LONG: return (double) bits;
+            case FLOAT: return Float.intBitsToFloat((int) bits);
+            case DOUBLE: return Double.longBitsToDouble(bits);
+            default: return ((Number) value).doubleValue();
+        }
     }
 }
@@ -0,0 +1,15 @@
+package io.byteops.modify.util;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Selector {
+    Class<?> owner() default void.class;
+
+    String name() default "";
+
+    String desc() default "";
+}